@@ -0,0 +1,197 @@
+package com.arneam;
+
+import org.apache.commons.lang3.tuple.Pair;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.regex.Pattern;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+// Dependencies read from compiled classes instead of sources: directories of .class files
+// and .jar archives, scanned in parallel (one task per archive or class file). Class files
+// on disk are memory mapped; jar entries are usually deflated, so they are inflated into a
+// reused per-thread buffer instead. A class file or jar entry that cannot be read is
+// recorded as a ScanFailure and skipped, like an unparseable source.
+public class BytecodeDependencies {
+
+    private final List<Path> roots;
+    private DependencyGraph references = DependencyGraph.empty();
+    private DependencyGraph dependencies = DependencyGraph.empty();
+    private boolean scanned;
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private ScanFailure.Policy failurePolicy = ScanFailure.Policy.SKIP;
+    private final Queue<ScanFailure> failures = new ConcurrentLinkedQueue<>();
+
+    private final ThreadLocal<byte[]> buffers = ThreadLocal.withInitial(() -> new byte[64 * 1024]);
+
+    public BytecodeDependencies(Path... roots) {
+        this.roots = Arrays.asList(roots);
+    }
+
+    public BytecodeDependencies parallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be at least 1: " + parallelism);
+        }
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    public BytecodeDependencies onFailure(ScanFailure.Policy failurePolicy) {
+        this.failurePolicy = failurePolicy;
+        return this;
+    }
+
+    public List<ScanFailure> failures() {
+        return new ArrayList<>(failures);
+    }
+
+    public BytecodeDependencies all() {
+        return load(".*");
+    }
+
+    public BytecodeDependencies allWith(String regex) {
+        return load(regex);
+    }
+
+    private BytecodeDependencies load(String regex) {
+        if (!scanned) {
+            loadData();
+            scanned = true;
+        }
+        Pattern pattern = Pattern.compile(regex);
+        dependencies = references.filter(it -> pattern.matcher(it).matches());
+        return this;
+    }
+
+    public DependencyGraph graph() {
+        return dependencies;
+    }
+
+    public Map<String, Set<String>> data() {
+        return dependencies.toMap();
+    }
+
+    public Set<String> nodes() {
+        return dependencies.nodeNames();
+    }
+
+    public Set<Pair<String, String>> edges() {
+        return dependencies.edgePairs();
+    }
+
+    private void loadData() {
+        List<Path> inputs = new ArrayList<>();
+        for (Path root : roots) {
+            inputs.addAll(new DirWalker(root)
+                .filter(path -> isClassFile(path.toString()) || path.toString().endsWith(".jar"))
+                .files());
+        }
+
+        failures.clear();
+        Map<String, Set<String>> referencesByClass = new ConcurrentHashMap<>();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.submit(() -> inputs.parallelStream().forEach(input -> {
+                if (input.toString().endsWith(".jar")) {
+                    loadJar(input, referencesByClass);
+                } else {
+                    loadClassFile(input, referencesByClass);
+                }
+            })).get();
+        } catch (InterruptedException | ExecutionException e) {
+            throw new RuntimeException(e);
+        } finally {
+            pool.shutdown();
+        }
+
+        DependencyGraph.Builder builder = new DependencyGraph.Builder();
+        referencesByClass.forEach((className, items) -> items.forEach(item -> builder.addEdge(className, item)));
+        references = builder.build();
+    }
+
+    private void loadClassFile(Path file, Map<String, Set<String>> referencesByClass) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            add(ClassFileReader.read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size())),
+                referencesByClass);
+        } catch (IOException e) {
+            fail(file, ScanFailure.Reason.IO_ERROR, String.valueOf(e.getMessage()), e);
+        } catch (RuntimeException e) {
+            fail(file, ScanFailure.Reason.PARSE_ERROR, String.valueOf(e.getMessage()), e);
+        }
+    }
+
+    private void loadJar(Path jar, Map<String, Set<String>> referencesByClass) {
+        try (ZipFile zip = new ZipFile(jar.toFile())) {
+            Enumeration<? extends ZipEntry> entries = zip.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry entry = entries.nextElement();
+                // META-INF holds multi-release copies of classes already listed at the root
+                if (entry.isDirectory() || !isClassFile(entry.getName()) || entry.getName().startsWith("META-INF/")) {
+                    continue;
+                }
+                try (InputStream in = zip.getInputStream(entry)) {
+                    add(ClassFileReader.read(read(in, (int) entry.getSize())), referencesByClass);
+                } catch (IOException e) {
+                    fail(jar, ScanFailure.Reason.IO_ERROR, entry.getName() + ": " + e.getMessage(), e);
+                } catch (RuntimeException e) {
+                    fail(jar, ScanFailure.Reason.PARSE_ERROR, entry.getName() + ": " + e.getMessage(), e);
+                }
+            }
+        } catch (IOException e) {
+            fail(jar, ScanFailure.Reason.IO_ERROR, String.valueOf(e.getMessage()), e);
+        }
+    }
+
+    private void fail(Path file, ScanFailure.Reason reason, String message, Throwable cause) {
+        ScanFailure failure = new ScanFailure(file.toFile(), reason, message);
+        failures.add(failure);
+        if (failurePolicy == ScanFailure.Policy.FAIL) {
+            throw new RuntimeException(failure.toString(), cause);
+        }
+    }
+
+    private ByteBuffer read(InputStream in, int size) throws IOException {
+        byte[] buffer = buffers.get();
+        if (size > buffer.length) {
+            buffer = new byte[size];
+            buffers.set(buffer);
+        }
+        int length = 0;
+        int read;
+        while ((read = in.read(buffer, length, buffer.length - length)) != -1) {
+            length += read;
+            if (length == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                buffers.set(buffer);
+            }
+        }
+        return ByteBuffer.wrap(buffer, 0, length);
+    }
+
+    private void add(ClassFileReader.ClassReferences classReferences, Map<String, Set<String>> referencesByClass) {
+        if (!classReferences.references.isEmpty()) {
+            referencesByClass.computeIfAbsent(classReferences.className, k -> ConcurrentHashMap.newKeySet())
+                .addAll(classReferences.references);
+        }
+    }
+
+    private static boolean isClassFile(String name) {
+        return name.endsWith(".class") && !name.endsWith("module-info.class") && !name.endsWith("package-info.class");
+    }
+}
@@ -1,36 +1,89 @@
 package com.arneam;
 
-import com.github.javaparser.JavaParser;
-import com.github.javaparser.ast.ImportDeclaration;
-import com.github.javaparser.ast.PackageDeclaration;
-import com.github.javaparser.ast.visitor.VoidVisitorAdapter;
-import com.mycila.xmltool.XMLDoc;
-import com.mycila.xmltool.XMLTag;
-import org.apache.commons.lang3.StringUtils;
-import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
 
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.io.Writer;
 import java.nio.charset.Charset;
+import java.nio.file.FileSystems;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Set;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.HashMap;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 public class ClassDependencies {
 
-    private File projectDir;
-    private Map<String, Set<String>> dependencies = new HashMap<>();
+    // With a per-file timeout, parses run on a pool of parallelism daemon threads. A parse
+    // that times out is interrupted, but one that ignores interruption cannot be stopped and
+    // keeps its thread; the pool grows by one thread per such abandoned parse so the scan
+    // keeps its parallelism, up to this many. Beyond that, files wait behind the hung
+    // parses and time out as well, instead of leaking a thread each.
+    static final int MAX_ABANDONED_PARSERS = 16;
+
+    private static final int QUEUED = 0;
+    private static final int RUNNING = 1;
+    private static final int DONE = 2;
+    private static final int ABANDONED = 3;
+
+    private List<Path> roots = new ArrayList<>();
+    private volatile DependencyGraph imports = DependencyGraph.empty();
+    private volatile DependencyGraph dependencies = DependencyGraph.empty();
+    private Map<Path, String> classByFile = new ConcurrentHashMap<>();
+    private boolean scanned;
     private String regex;
+    private int parallelism = 1;
+    private ImportExtractor extractor = new JavaParserImportExtractor();
+    private ScanCache cache;
+    private TypeIndex typeIndex;
+    private Set<String> excludes = new HashSet<>();
+    private List<PathMatcher> includeFiles = new ArrayList<>();
+    private List<PathMatcher> excludeFiles = new ArrayList<>();
+    private ScanMetrics metrics = new ScanMetrics();
+    private ScanFailure.Policy failurePolicy = ScanFailure.Policy.SKIP;
+    private long timeoutMillis;
+    private long maxFileSize;
+    private Queue<ScanFailure> failures = new ConcurrentLinkedQueue<>();
+    private Set<String> changedClasses = ConcurrentHashMap.newKeySet();
+    private final Object timedParsersLock = new Object();
+    private ThreadPoolExecutor timedParsers;
+    private final AtomicInteger abandonedParsers = new AtomicInteger();
 
     public ClassDependencies(File projectDir) {
-        this.projectDir = projectDir;
+        root(projectDir);
+    }
+
+    // further source roots scanned into the same graph
+    public ClassDependencies root(File directory) {
+        roots.add(key(directory));
+        return this;
     }
 
     public ClassDependencies all() {
@@ -41,28 +94,165 @@ public class ClassDependencies {
         return load(regex);
     }
 
-    private ClassDependencies load(String regex) {
+    public ClassDependencies parallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be at least 1: " + parallelism);
+        }
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    public ClassDependencies using(ImportExtractor extractor) {
+        this.extractor = extractor;
+        return this;
+    }
+
+    public ClassDependencies cache(ScanCache cache) {
+        this.cache = cache.load();
+        return this;
+    }
+
+    // resolves same-package, wildcard and qualified type references against an index of
+    // the scanned classes; the index may already hold types of other trees
+    public ClassDependencies resolveTypes(TypeIndex typeIndex) {
+        this.typeIndex = typeIndex;
+        return this;
+    }
+
+    public ClassDependencies resolveTypes() {
+        return resolveTypes(new TypeIndex());
+    }
+
+    public TypeIndex typeIndex() {
+        return typeIndex;
+    }
+
+    public ClassDependencies metrics(ScanMetrics metrics) {
+        this.metrics = metrics;
+        return this;
+    }
+
+    public ScanMetrics metrics() {
+        return metrics;
+    }
+
+    public ClassDependencies onFailure(ScanFailure.Policy failurePolicy) {
+        this.failurePolicy = failurePolicy;
+        return this;
+    }
+
+    public ClassDependencies timeout(long timeout, TimeUnit unit) {
+        this.timeoutMillis = unit.toMillis(timeout);
+        return this;
+    }
+
+    public ClassDependencies maxFileSize(long bytes) {
+        this.maxFileSize = bytes;
+        return this;
+    }
+
+    // classes whose edges were replaced by updates since the last full scan and, with a
+    // cache, those the full scan itself parsed again or no longer found: the rows that may
+    // differ from the scan that saved the cache, see GraphDiff
+    public Set<String> changedClasses() {
+        return new HashSet<>(changedClasses);
+    }
+
+    // files left out of the last scan
+    public List<ScanFailure> failures() {
+        return new ArrayList<>(failures);
+    }
+
+    public ClassDependencies exclude(String... directoryNames) {
+        excludes.addAll(Arrays.asList(directoryNames));
+        return this;
+    }
+
+    // globs are matched against the path relative to its source root, e.g. "com/acme/**"
+    public ClassDependencies includeFiles(String... globs) {
+        includeFiles.addAll(matchers(globs));
+        return this;
+    }
+
+    public ClassDependencies excludeFiles(String... globs) {
+        excludeFiles.addAll(matchers(globs));
+        return this;
+    }
+
+    private List<PathMatcher> matchers(String... globs) {
+        return Arrays.stream(globs)
+            .map(glob -> FileSystems.getDefault().getPathMatcher("glob:" + glob))
+            .collect(Collectors.toList());
+    }
+
+    List<Path> getRoots() {
+        return roots;
+    }
+
+    // classes declared by the scanned files, including those without imports
+    Set<String> getDeclaredClasses() {
+        return new HashSet<>(classByFile.values());
+    }
+
+    // the scanned source files below dir, e.g. one that was deleted or moved away
+    List<File> getFilesUnder(Path dir) {
+        Path prefix = dir.toAbsolutePath().normalize();
+        return classByFile.keySet().stream()
+            .filter(path -> path.startsWith(prefix))
+            .map(Path::toFile)
+            .collect(Collectors.toList());
+    }
+
+    Set<String> getExcludes() {
+        return excludes;
+    }
+
+    public synchronized ClassDependencies rescan() {
+        scanned = false;
+        return regex == null ? this : load(regex);
+    }
+
+    private synchronized ClassDependencies load(String regex) {
         this.regex = regex;
-        loadData();
+        scanOnce();
+        filter(Pattern.compile(regex));
         return this;
     }
 
-    public Map<String, Set<String>> data() {
+    private synchronized DependencyGraph scanOnce() {
+        if (!scanned) {
+            loadData();
+            scanned = true;
+        }
+        return imports;
+    }
+
+    // filters the scanned graph without replacing the one returned by graph(), so several
+    // filters can share a single scan
+    public DependencyGraph graphWith(String regex) {
+        Pattern pattern = Pattern.compile(regex);
+        DependencyGraph scannedImports = scanOnce();
+        return metrics.time(ScanMetrics.Stage.FILTER, () -> scannedImports.filter(it -> pattern.matcher(it).matches()));
+    }
+
+    private void filter(Pattern pattern) {
+        dependencies = metrics.time(ScanMetrics.Stage.FILTER, () -> imports.filter(it -> pattern.matcher(it).matches()));
+    }
+
+    public DependencyGraph graph() {
         return dependencies;
     }
 
+    public Map<String, Set<String>> data() {
+        return dependencies.toMap();
+    }
+
     public Set<String> nodes() {
-        Set<String> nodes = dependencies.entrySet().stream()
-                .flatMap(entry -> entry.getValue().stream())
-                .collect(Collectors.toSet());
-        nodes.addAll(dependencies.keySet());
-        return nodes;
+        return dependencies.nodeNames();
     }
 
     public Set<Pair<String, String>> edges() {
-        Set<Pair<String, String>> edgeItems = new HashSet<>();
-        dependencies.forEach((k, v) -> v.forEach(item -> edgeItems.add(new ImmutablePair(k, item))));
-        return edgeItems;
+        return dependencies.edgePairs();
     }
 
     String getFullQualifiedNameOfClassFile(String pkg, File file) {
@@ -74,160 +264,442 @@ public class ClassDependencies {
     }
 
     private void loadData() {
-        dependencies.clear();
-
-        DirExplorer explorer = new DirExplorer(
-            (level, path, file) -> path.endsWith(".java"),
-            (level, path, file) -> {
-                try {
-                    new VoidVisitorAdapter<Object>() {
-                        String className;
-
-                        @Override
-                        public void visit(PackageDeclaration n, Object arg) {
-                            super.visit(n, arg);
-                            className = getFullQualifiedNameOfClassFile(n.getName().toString(), file);
-                        }
-
-                        @Override
-                        public void visit(ImportDeclaration n, Object arg) {
-                            super.visit(n, arg);
-                            try {
-                                if (n.getName().toString().matches(regex)) {
-                                    Set<String> deps = dependencies.get(className);
-                                    if (deps == null) {
-                                        deps = new HashSet<>();
-                                        dependencies.put(className, deps);
-                                    }
-                                    deps.add(n.getNameAsString());
-                                }
-                            } catch(Exception e) {
-                                throw new RuntimeException(e);
-                            }
-                        }
-                    }.visit(JavaParser.parse(file), null);
-                } catch (IOException e) {
-                    new RuntimeException(e);
+        long start = System.nanoTime();
+        Map<File, SourceImports> parsed = new ConcurrentHashMap<>();
+        classByFile.clear();
+        failures.clear();
+        changedClasses.clear();
+
+        List<File> files = metrics.time(ScanMetrics.Stage.WALK, () -> roots.stream()
+            .flatMap(root -> new DirWalker(root)
+                .exclude(excludes.toArray(new String[0]))
+                .filter(path -> accepts(root, path))
+                .stream())
+            .map(Path::toFile)
+            .collect(Collectors.toList()));
+
+        forEach(files, file -> loadFile(file, parsed));
+        Map<String, Set<String>> importsByClass = link(parsed);
+
+        DependencyGraph.Builder builder = new DependencyGraph.Builder();
+        importsByClass.forEach((className, items) -> items.forEach(item -> builder.addEdge(className, item)));
+        imports = builder.build();
+
+        if (cache != null) {
+            cache.misses().forEach(file -> {
+                String className = classByFile.get(key(file));
+                if (className != null) {
+                    changedClasses.add(className);
                 }
             });
+            cache.staleResults().forEach((file, previous) -> changedClasses.add(className(previous, file)));
+            cache.save();
+        }
+        metrics.recordScan(System.nanoTime() - start);
+    }
+
+    // Re-reads the given files, created, modified or deleted, and replaces the edges of the
+    // classes they declare(d) without scanning the rest of the tree.
+    synchronized void update(Collection<File> files) {
+        if (!scanned) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        Set<String> affected = new HashSet<>();
+        Set<Path> reload = new HashSet<>();
+        for (File file : files) {
+            Path path = key(file);
+            String previous = classByFile.remove(path);
+            if (previous != null) {
+                affected.add(previous);
+            }
+            if (file.isFile() && accepts(path)) {
+                reload.add(path);
+            }
+        }
+
+        Map<File, SourceImports> parsed = new ConcurrentHashMap<>();
+        reload.forEach(path -> loadFile(path.toFile(), parsed));
+        reload.forEach(path -> affected.add(classByFile.get(path)));
+        affected.remove(null);
 
-        explorer.explore(projectDir);
+        // other files declaring an affected class contribute to the same node
+        classByFile.forEach((path, className) -> {
+            if (affected.contains(className) && !reload.contains(path)) {
+                loadFile(path.toFile(), parsed);
+            }
+        });
+        changedClasses.addAll(affected);
+        // unchanged files referring to a new type are resolved again on the next full scan
+        Map<String, Set<String>> importsByClass = link(parsed);
+
+        DependencyGraph.Builder builder = new DependencyGraph.Builder();
+        DependencyGraph current = imports;
+        current.forEachEdge((source, target) -> {
+            if (!affected.contains(current.name(source))) {
+                builder.addEdge(current.name(source), current.name(target));
+            }
+        });
+        importsByClass.forEach((className, items) -> items.forEach(item -> builder.addEdge(className, item)));
+        imports = builder.build();
+        metrics.recordScan(System.nanoTime() - start);
+
+        filter(Pattern.compile(regex));
     }
 
-    public String toCSVFormat(Set<String> nodes, String separator) {
-        return nodes().stream().map( it -> it + separator).reduce("", String::concat);
+    private boolean isSource(Path path) {
+        return path.toString().endsWith(".java");
     }
 
-    public String toCSVFormat(Set<Pair<String, String>> edges, String edgeSeparator, String separator) {
-        return edges().stream().map( it -> it.getKey() + edgeSeparator + it.getValue() + separator)
-                .reduce("", String::concat);
+    private boolean accepts(Path path) {
+        return roots.stream()
+            .filter(path::startsWith)
+            .findFirst()
+            .map(root -> accepts(root, path))
+            .orElse(false);
     }
 
-    public void writeNodesIntoCSVFile(Set<String> nodes, String separator, String path) {
-        Charset charset = Charset.forName("UTF-8");
-        String s = toCSVFormat(nodes, separator);
-        try (BufferedWriter writer = Files.newBufferedWriter(Paths.get(path), charset)) {
-            writer.write(s, 0, s.length());
-        } catch (IOException e) {
-            throw new RuntimeException(e);
+    private boolean accepts(Path root, Path path) {
+        if (!isSource(path)) {
+            return false;
         }
+        if (includeFiles.isEmpty() && excludeFiles.isEmpty()) {
+            return true;
+        }
+        Path relative = root.relativize(path.toAbsolutePath().normalize());
+        return (includeFiles.isEmpty() || includeFiles.stream().anyMatch(matcher -> matcher.matches(relative)))
+            && excludeFiles.stream().noneMatch(matcher -> matcher.matches(relative));
     }
 
-    public void writeEdgesIntoCSVFile(Set<Pair<String, String>> edges, String edgeSeparator,
-                                      String separator, String path) {
-        Charset charset = Charset.forName("UTF-8");
-        String s = toCSVFormat(edges, edgeSeparator, separator);
-        try (BufferedWriter writer = Files.newBufferedWriter(Paths.get(path), charset)) {
-            writer.write(s, 0, s.length());
-        } catch (IOException e) {
-            throw new RuntimeException(e);
+    private Path key(File file) {
+        return file.toPath().toAbsolutePath().normalize();
+    }
+
+    private <T> void forEach(Collection<T> items, Consumer<T> action) {
+        if (parallelism > 1) {
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                pool.submit(() -> items.parallelStream().forEach(action)).get();
+            } catch (InterruptedException | ExecutionException e) {
+                throw new RuntimeException(e);
+            } finally {
+                pool.shutdown();
+            }
+        } else {
+            items.forEach(action);
         }
     }
 
-    public void generateGraphMLFromCSVFiles(String nodesCSVFile, String edgesCSVFile, String xmlFile) {
-        // according to https://en.wikipedia.org/wiki/GraphML and
-        // https://gephi.org/users/supported-graph-formats/graphml-format/
+    // turns parsed files into the dependencies of their classes, resolving type references
+    // once all declared classes are known
+    private Map<String, Set<String>> link(Map<File, SourceImports> parsed) {
+        Map<String, Set<String>> importsByClass = new ConcurrentHashMap<>();
+        if (typeIndex == null) {
+            parsed.forEach((file, sourceImports) -> addImports(importsByClass,
+                classByFile.get(key(file)), sourceImports.getImports()));
+            return importsByClass;
+        }
+
+        metrics.time(ScanMetrics.Stage.RESOLVE, () -> {
+            // types of files that are gone or no longer declare them
+            typeIndex.removeFiles(path -> roots.stream().anyMatch(path::startsWith) && !classByFile.containsKey(path));
+            classByFile.forEach((path, className) -> typeIndex.put(className, path));
+            forEach(parsed.entrySet(), it -> {
+                String className = classByFile.get(key(it.getKey()));
+                addImports(importsByClass, className, typeIndex.dependencies(it.getValue(), className));
+            });
+        });
+        return importsByClass;
+    }
+
+    private void addImports(Map<String, Set<String>> importsByClass, String className, Collection<String> items) {
+        if (!items.isEmpty()) {
+            importsByClass.computeIfAbsent(className, k -> ConcurrentHashMap.newKeySet()).addAll(items);
+        }
+    }
 
-        List<String> nodes;
-        List<String> edges;
+    private void loadFile(File file, Map<File, SourceImports> parsed) {
+        long size = file.length();
+        if (maxFileSize > 0 && size > maxFileSize) {
+            fail(file, ScanFailure.Reason.TOO_LARGE, size + " bytes, limit is " + maxFileSize, null);
+            return;
+        }
 
+        AtomicLong parseNanos = new AtomicLong(-1);
+        SourceImports sourceImports;
         try {
-            nodes = Files.readAllLines(Paths.get(nodesCSVFile));
-            edges = Files.readAllLines(Paths.get(edgesCSVFile));
+            sourceImports = timeoutMillis > 0 ? extractWithTimeout(file, parseNanos) : extract(file, parseNanos);
+        } catch (TimeoutException e) {
+            fail(file, ScanFailure.Reason.TIMEOUT, "no result after " + timeoutMillis + " ms", e);
+            return;
         } catch (IOException e) {
-            throw new RuntimeException(e);
+            fail(file, ScanFailure.Reason.IO_ERROR, String.valueOf(e.getMessage()), e);
+            return;
+        } catch (RuntimeException | StackOverflowError e) {
+            fail(file, ScanFailure.Reason.PARSE_ERROR, String.valueOf(e.getMessage()), e);
+            return;
+        }
+        if (parseNanos.get() < 0) {
+            metrics.recordCacheHit(file, size);
+        } else {
+            metrics.recordFile(file, size, parseNanos.get());
         }
 
-        Charset charset = Charset.forName("UTF-8");
+        classByFile.put(key(file), className(sourceImports, file));
+        parsed.put(file, sourceImports);
+    }
 
-        XMLTag doc = XMLDoc.from(Paths.get("./template.graphml").toFile())
-            .addTag("key")
-                .addAttribute("id", "d1")
-                .addAttribute("for", "edge")
-                .addAttribute("attr.name", "weight")
-                .addAttribute("attr.type", "double")
-                .gotoParent()
-            .addTag("graph")
-                .addAttribute("id", "G")
-                .addAttribute("edgedefault", "undirected");
+    private String className(SourceImports sourceImports, File file) {
+        return sourceImports.getPackageName() == null
+            ? getClassNameFromFile(file)
+            : getFullQualifiedNameOfClassFile(sourceImports.getPackageName(), file);
+    }
 
-        nodes.forEach(node -> {
-            int nodeSize = node.split("\\.").length;
-            String simplifiedNode = node;
+    // sets parseNanos to the time the extractor took; it stays -1 when the cache held the result
+    private SourceImports extract(File file, AtomicLong parseNanos) throws IOException {
+        ImportExtractor timed = new ImportExtractor() {
+            @Override
+            public SourceImports extract(File source) throws IOException {
+                long start = System.nanoTime();
+                SourceImports sourceImports = extractor.extract(source);
+                parseNanos.set(System.nanoTime() - start);
+                return sourceImports;
+            }
 
-            // todo: add unit test (scenario not covered)
-            if (StringUtils.countMatches(simplifiedNode, ".") >= 2) {
-                simplifiedNode = node.split("\\.")[nodeSize - 2] + "." + node.split("\\.")[nodeSize - 1];
+            @Override
+            public String engine() {
+                return extractor.engine();
             }
+        };
+        return cache == null ? timed.extract(file) : cache.extract(file, timed);
+    }
 
-            doc.addTag("node").addAttribute("id", simplifiedNode).gotoParent();
+    private SourceImports extractWithTimeout(File file, AtomicLong parseNanos) throws IOException, TimeoutException {
+        AtomicInteger state = new AtomicInteger(QUEUED);
+        Future<SourceImports> result = timedParsers().submit(() -> {
+            if (!state.compareAndSet(QUEUED, RUNNING)) {
+                return null;
+            }
+            try {
+                return extract(file, parseNanos);
+            } finally {
+                if (!state.compareAndSet(RUNNING, DONE)) {
+                    resizeTimedParsers(abandonedParsers.decrementAndGet());
+                }
+            }
         });
+        try {
+            return result.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            result.cancel(true);
+            if (state.compareAndSet(RUNNING, ABANDONED)) {
+                resizeTimedParsers(abandonedParsers.incrementAndGet());
+            } else {
+                state.set(ABANDONED);
+            }
+            throw e;
+        } catch (InterruptedException e) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new RuntimeException(cause);
+        }
+    }
+
+    // not synchronized on this: scans hold that lock while their workers parse
+    private ThreadPoolExecutor timedParsers() {
+        synchronized (timedParsersLock) {
+            if (timedParsers == null) {
+                timedParsers = new ThreadPoolExecutor(parallelism, parallelism, 30, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(), runnable -> {
+                        Thread thread = new Thread(runnable, "timed-parser");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                timedParsers.allowCoreThreadTimeOut(true);
+            }
+            resizeTimedParsers(abandonedParsers.get());
+            return timedParsers;
+        }
+    }
 
-        for (int i = 0; i < edges.size(); i++) {
-            String edgeSource = edges.get(i).split(";")[0];
-            String edgeTarget = edges.get(i).split(";")[1];
+    private void resizeTimedParsers(int abandoned) {
+        synchronized (timedParsersLock) {
+            int size = parallelism + Math.min(abandoned, MAX_ABANDONED_PARSERS);
+            if (size > timedParsers.getMaximumPoolSize()) {
+                timedParsers.setMaximumPoolSize(size);
+                timedParsers.setCorePoolSize(size);
+            } else if (size < timedParsers.getMaximumPoolSize()) {
+                timedParsers.setCorePoolSize(size);
+                timedParsers.setMaximumPoolSize(size);
+            }
+        }
+    }
 
-            int edgeSourceSize = edgeSource.split("\\.").length;
-            int edgeTargetSize = edgeTarget.split("\\.").length;
+    // timed out parses whose threads are still busy
+    int abandonedParsers() {
+        return abandonedParsers.get();
+    }
+
+    private void fail(File file, ScanFailure.Reason reason, String message, Throwable cause) {
+        ScanFailure failure = new ScanFailure(file, reason, message);
+        failures.add(failure);
+        metrics.recordFailure(file);
+        if (failurePolicy == ScanFailure.Policy.FAIL) {
+            throw new RuntimeException(failure.toString(), cause);
+        }
+    }
+
+    public String toCSVFormat(Set<String> nodes, String separator) {
+        StringWriter writer = new StringWriter();
+        try {
+            writeNodes(nodes, separator, writer);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return writer.toString();
+    }
 
-            // todo: add unit test (scenario not covered)
-            if (StringUtils.countMatches(edgeSource, ".") >= 2) {
-                edgeSource = edgeSource.split("\\.")[edgeSourceSize - 2] + "." + edgeSource.split("\\.")[edgeSourceSize - 1];
+    public String toCSVFormat(Set<Pair<String, String>> edges, String edgeSeparator, String separator) {
+        StringWriter writer = new StringWriter();
+        try {
+            writeEdges(edges, edgeSeparator, separator, writer);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return writer.toString();
+    }
+
+    public void writeNodesIntoCSVFile(Set<String> nodes, String separator, String path) {
+        metrics.time(ScanMetrics.Stage.EXPORT, () -> {
+            Charset charset = Charset.forName("UTF-8");
+            try (BufferedWriter writer = Files.newBufferedWriter(Paths.get(path), charset)) {
+                writeNodes(nodes, separator, writer);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
             }
-            // todo: add unit test (scenario not covered)
-            if (StringUtils.countMatches(edgeTarget, ".") >= 2) {
-                edgeTarget = edgeTarget.split("\\.")[edgeTargetSize - 2] + "." + edgeTarget.split("\\.")[edgeTargetSize - 1];
+        });
+    }
+
+    public void writeEdgesIntoCSVFile(Set<Pair<String, String>> edges, String edgeSeparator,
+                                      String separator, String path) {
+        metrics.time(ScanMetrics.Stage.EXPORT, () -> {
+            Charset charset = Charset.forName("UTF-8");
+            try (BufferedWriter writer = Files.newBufferedWriter(Paths.get(path), charset)) {
+                writeEdges(edges, edgeSeparator, separator, writer);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
             }
+        });
+    }
+
+    private void writeNodes(Set<String> nodes, String separator, Writer writer) throws IOException {
+        for (String node : nodes) {
+            writer.write(node);
+            writer.write(separator);
+        }
+    }
 
-            doc.addTag("edge")
-                .addAttribute("id", "e" + i)
-                .addAttribute("source", edgeSource)
-                .addAttribute("target", edgeTarget)
-                .addTag("data")
-                .addAttribute("key", "d1")
-                .addText("1.0")
-                .gotoParent();
+    private void writeEdges(Set<Pair<String, String>> edges, String edgeSeparator, String separator,
+                            Writer writer) throws IOException {
+        for (Pair<String, String> edge : edges) {
+            writer.write(edge.getKey());
+            writer.write(edgeSeparator);
+            writer.write(edge.getValue());
+            writer.write(separator);
         }
+    }
+
+    public void export(Set<String> nodes, Set<Pair<String, String>> edges, GraphExporter exporter, String path) {
+        metrics.time(ScanMetrics.Stage.EXPORT, () -> {
+            Charset charset = Charset.forName("UTF-8");
+            try (BufferedWriter writer = Files.newBufferedWriter(Paths.get(path), charset)) {
+                exporter.export(nodes, edges, writer);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+    }
 
-//        edges.forEach(edge -> {
-//            doc.addTag("edge")
-//                .addAttribute("id", "e" + new Random().nextInt(100))
-//                .addAttribute("source", edge.split(";")[0])
-//                .addAttribute("target", edge.split(";")[1])
-//                .addTag("data")
-//                    .addAttribute("key", "d1")
-//                    .addText("1.0")
-//                .gotoParent();
-//        });
+    public void export(DependencyGraph graph, GraphExporter exporter, String path) {
+        metrics.time(ScanMetrics.Stage.EXPORT, () -> {
+            Charset charset = Charset.forName("UTF-8");
+            try (BufferedWriter writer = Files.newBufferedWriter(Paths.get(path), charset)) {
+                exporter.export(graph, writer);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
+    public DependencyGraph aggregate(GraphAggregation aggregation) {
+        return aggregation.aggregate(dependencies);
+    }
+
+    public void writeGraphMLFile(Set<String> nodes, Set<Pair<String, String>> edges, String xmlFile) {
+        export(nodes, edges, new GraphMLExporter(), xmlFile);
+    }
+
+    public void writeSvgFile(DependencyGraph graph, GraphRenderer renderer, String svgFile) {
+        export(graph, new SvgExporter(renderer), svgFile);
+    }
 
-        String s = doc.toString();
+    // a drawing prepared once can be written as both SVG and PNG
+    public void writeSvgFile(GraphRenderer.Drawing drawing, GraphRenderer renderer, String svgFile) {
+        metrics.time(ScanMetrics.Stage.EXPORT, () -> {
+            try (BufferedWriter writer = Files.newBufferedWriter(Paths.get(svgFile), Charset.forName("UTF-8"))) {
+                renderer.writeSvg(drawing, writer);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+    }
 
-        try (BufferedWriter writer = Files.newBufferedWriter(Paths.get(xmlFile), charset)) {
-            writer.write(s, 0, s.length());
+    public void writePngFile(DependencyGraph graph, GraphRenderer renderer, String pngFile) {
+        metrics.time(ScanMetrics.Stage.EXPORT, () -> writePng(renderer.prepare(graph), renderer, pngFile));
+    }
+
+    public void writePngFile(GraphRenderer.Drawing drawing, GraphRenderer renderer, String pngFile) {
+        metrics.time(ScanMetrics.Stage.EXPORT, () -> writePng(drawing, renderer, pngFile));
+    }
+
+    private void writePng(GraphRenderer.Drawing drawing, GraphRenderer renderer, String pngFile) {
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(Paths.get(pngFile)))) {
+            renderer.writePng(drawing, out);
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
+    }
 
+    public void generateGraphMLFromCSVFiles(String nodesCSVFile, String edgesCSVFile, String xmlFile) {
+        metrics.time(ScanMetrics.Stage.EXPORT, () -> {
+            Charset charset = Charset.forName("UTF-8");
 
+            try (BufferedReader nodes = Files.newBufferedReader(Paths.get(nodesCSVFile), charset);
+                 BufferedReader edges = Files.newBufferedReader(Paths.get(edgesCSVFile), charset);
+                 GraphMLWriter graphML = new GraphMLWriter(Files.newBufferedWriter(Paths.get(xmlFile), charset))) {
+
+                String line;
+                while ((line = nodes.readLine()) != null) {
+                    graphML.node(GraphMLWriter.simplify(line));
+                }
+                while ((line = edges.readLine()) != null) {
+                    int separator = line.indexOf(';');
+                    graphML.edge(GraphMLWriter.simplify(line.substring(0, separator)),
+                        GraphMLWriter.simplify(line.substring(separator + 1)), 1.0);
+                }
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
     }
 }
@@ -0,0 +1,370 @@
+package com.arneam;
+
+import java.nio.ByteBuffer;
+import java.util.HashSet;
+import java.util.Set;
+
+// Reads the class references out of a class file: the constant pool's CONSTANT_Class
+// entries and NameAndType and MethodType descriptors, then the descriptors and generic
+// Signature attributes of the declared fields and methods and of the class itself, and the
+// types of their annotations (including parameter and type annotations). Those name types
+// a class only declares, such as the element type of a List<Order> field or a @Marker,
+// which never reach the constant pool as a CONSTANT_Class. Method bodies are not visited:
+// what code uses is already in the pool. Nothing is loaded or verified. Nested classes are
+// reported as their top-level class, the way sources see them.
+class ClassFileReader {
+
+    private static final int MAGIC = 0xCAFEBABE;
+
+    private static final int UTF8 = 1;
+    private static final int INTEGER = 3;
+    private static final int FLOAT = 4;
+    private static final int LONG = 5;
+    private static final int DOUBLE = 6;
+    private static final int CLASS = 7;
+    private static final int STRING = 8;
+    private static final int FIELD_REF = 9;
+    private static final int METHOD_REF = 10;
+    private static final int INTERFACE_METHOD_REF = 11;
+    private static final int NAME_AND_TYPE = 12;
+    private static final int METHOD_HANDLE = 15;
+    private static final int METHOD_TYPE = 16;
+    private static final int DYNAMIC = 17;
+    private static final int INVOKE_DYNAMIC = 18;
+    private static final int MODULE = 19;
+    private static final int PACKAGE = 20;
+
+    static class ClassReferences {
+        final String className;
+        final Set<String> references;
+
+        ClassReferences(String className, Set<String> references) {
+            this.className = className;
+            this.references = references;
+        }
+    }
+
+    static ClassReferences read(ByteBuffer buffer) {
+        if (buffer.getInt() != MAGIC) {
+            throw new IllegalArgumentException("not a class file");
+        }
+        buffer.getShort();
+        buffer.getShort();
+
+        int count = buffer.getShort() & 0xFFFF;
+        int[] utf8Offsets = new int[count];
+        int[] classNames = new int[count];
+        int[] descriptors = new int[count];
+        int descriptorCount = 0;
+
+        for (int index = 1; index < count; index++) {
+            int tag = buffer.get() & 0xFF;
+            switch (tag) {
+                case UTF8:
+                    utf8Offsets[index] = buffer.position();
+                    buffer.position(buffer.position() + 2 + (buffer.getShort() & 0xFFFF));
+                    break;
+                case CLASS:
+                    classNames[index] = buffer.getShort() & 0xFFFF;
+                    break;
+                case NAME_AND_TYPE:
+                    buffer.getShort();
+                    descriptors[descriptorCount++] = buffer.getShort() & 0xFFFF;
+                    break;
+                case METHOD_TYPE:
+                    descriptors[descriptorCount++] = buffer.getShort() & 0xFFFF;
+                    break;
+                case STRING:
+                case MODULE:
+                case PACKAGE:
+                    buffer.getShort();
+                    break;
+                case METHOD_HANDLE:
+                    buffer.position(buffer.position() + 3);
+                    break;
+                case INTEGER:
+                case FLOAT:
+                case FIELD_REF:
+                case METHOD_REF:
+                case INTERFACE_METHOD_REF:
+                case DYNAMIC:
+                case INVOKE_DYNAMIC:
+                    buffer.getInt();
+                    break;
+                case LONG:
+                case DOUBLE:
+                    buffer.getLong();
+                    index++;
+                    break;
+                default:
+                    throw new IllegalArgumentException("unknown constant pool tag " + tag + " at " + index);
+            }
+        }
+
+        buffer.getShort();
+        int thisClass = buffer.getShort() & 0xFFFF;
+        String className = typeName(utf8(buffer, utf8Offsets[classNames[thisClass]]));
+
+        Set<String> references = new HashSet<>();
+        for (int index = 1; index < count; index++) {
+            if (classNames[index] != 0 && index != thisClass) {
+                String name = typeName(utf8(buffer, utf8Offsets[classNames[index]]));
+                if (name != null) {
+                    references.add(name);
+                }
+            }
+        }
+        for (int i = 0; i < descriptorCount; i++) {
+            addDescriptorTypes(utf8(buffer, utf8Offsets[descriptors[i]]), references);
+        }
+
+        // super class and interfaces are CONSTANT_Class entries, already read
+        buffer.getShort();
+        int interfaceCount = buffer.getShort() & 0xFFFF;
+        buffer.position(buffer.position() + 2 * interfaceCount);
+        for (int members = 0; members < 2; members++) {
+            int memberCount = buffer.getShort() & 0xFFFF;
+            for (int member = 0; member < memberCount; member++) {
+                buffer.getInt();
+                addDescriptorTypes(utf8(buffer, utf8Offsets[buffer.getShort() & 0xFFFF]), references);
+                readAttributes(buffer, utf8Offsets, references);
+            }
+        }
+        readAttributes(buffer, utf8Offsets, references);
+
+        references.remove(className);
+        return new ClassReferences(className, references);
+    }
+
+    private static void readAttributes(ByteBuffer buffer, int[] utf8Offsets, Set<String> references) {
+        int attributeCount = buffer.getShort() & 0xFFFF;
+        for (int attribute = 0; attribute < attributeCount; attribute++) {
+            String name = utf8(buffer, utf8Offsets[buffer.getShort() & 0xFFFF]);
+            int length = buffer.getInt();
+            int end = buffer.position() + length;
+            switch (name) {
+                case "Signature":
+                    addDescriptorTypes(utf8(buffer, utf8Offsets[buffer.getShort() & 0xFFFF]), references);
+                    break;
+                case "RuntimeVisibleAnnotations":
+                case "RuntimeInvisibleAnnotations":
+                    readAnnotations(buffer, utf8Offsets, references);
+                    break;
+                case "RuntimeVisibleParameterAnnotations":
+                case "RuntimeInvisibleParameterAnnotations":
+                    for (int parameters = buffer.get() & 0xFF; parameters > 0; parameters--) {
+                        readAnnotations(buffer, utf8Offsets, references);
+                    }
+                    break;
+                case "RuntimeVisibleTypeAnnotations":
+                case "RuntimeInvisibleTypeAnnotations":
+                    for (int annotations = buffer.getShort() & 0xFFFF; annotations > 0; annotations--) {
+                        skipTypeAnnotationTarget(buffer);
+                        readAnnotation(buffer, utf8Offsets, references);
+                    }
+                    break;
+                case "AnnotationDefault":
+                    readElementValue(buffer, utf8Offsets, references);
+                    break;
+                default:
+                    break;
+            }
+            buffer.position(end);
+        }
+    }
+
+    private static void readAnnotations(ByteBuffer buffer, int[] utf8Offsets, Set<String> references) {
+        for (int annotations = buffer.getShort() & 0xFFFF; annotations > 0; annotations--) {
+            readAnnotation(buffer, utf8Offsets, references);
+        }
+    }
+
+    private static void readAnnotation(ByteBuffer buffer, int[] utf8Offsets, Set<String> references) {
+        addDescriptorTypes(utf8(buffer, utf8Offsets[buffer.getShort() & 0xFFFF]), references);
+        for (int pairs = buffer.getShort() & 0xFFFF; pairs > 0; pairs--) {
+            buffer.getShort();
+            readElementValue(buffer, utf8Offsets, references);
+        }
+    }
+
+    private static void readElementValue(ByteBuffer buffer, int[] utf8Offsets, Set<String> references) {
+        int tag = buffer.get() & 0xFF;
+        switch (tag) {
+            case 'e':
+                addDescriptorTypes(utf8(buffer, utf8Offsets[buffer.getShort() & 0xFFFF]), references);
+                buffer.getShort();
+                break;
+            case 'c':
+                addDescriptorTypes(utf8(buffer, utf8Offsets[buffer.getShort() & 0xFFFF]), references);
+                break;
+            case '@':
+                readAnnotation(buffer, utf8Offsets, references);
+                break;
+            case '[':
+                for (int values = buffer.getShort() & 0xFFFF; values > 0; values--) {
+                    readElementValue(buffer, utf8Offsets, references);
+                }
+                break;
+            default:
+                // a constant: B C D F I J S Z or s
+                buffer.getShort();
+        }
+    }
+
+    // target_info and type_path of a type_annotation, JVMS 4.7.20
+    private static void skipTypeAnnotationTarget(ByteBuffer buffer) {
+        int targetType = buffer.get() & 0xFF;
+        switch (targetType) {
+            case 0x00:
+            case 0x01:
+            case 0x16:
+                buffer.get();
+                break;
+            case 0x10:
+            case 0x11:
+            case 0x12:
+            case 0x17:
+            case 0x42:
+            case 0x43:
+            case 0x44:
+            case 0x45:
+            case 0x46:
+                buffer.getShort();
+                break;
+            case 0x13:
+            case 0x14:
+            case 0x15:
+                break;
+            case 0x40:
+            case 0x41:
+                int tableLength = buffer.getShort() & 0xFFFF;
+                buffer.position(buffer.position() + 6 * tableLength);
+                break;
+            case 0x47:
+            case 0x48:
+            case 0x49:
+            case 0x4A:
+            case 0x4B:
+                buffer.getShort();
+                buffer.get();
+                break;
+            default:
+                throw new IllegalArgumentException("unknown type annotation target " + targetType);
+        }
+        int pathLength = buffer.get() & 0xFF;
+        buffer.position(buffer.position() + 2 * pathLength);
+    }
+
+    // "java/util/Map$Entry" -> "java.util.Map", "[Ljava/lang/String;" -> "java.lang.String",
+    // primitive arrays -> null
+    static String typeName(String internalName) {
+        int start = 0;
+        while (start < internalName.length() && internalName.charAt(start) == '[') {
+            start++;
+        }
+        int end = internalName.length();
+        if (start > 0) {
+            if (internalName.charAt(start) != 'L') {
+                return null;
+            }
+            start++;
+            end--;
+        }
+        int nested = internalName.indexOf('$', start);
+        if (nested > start && nested < end) {
+            end = nested;
+        }
+        return internalName.substring(start, end).replace('/', '.');
+    }
+
+    // field and method descriptors and generic signatures, e.g.
+    // "<T:Ljava/lang/Object;>(Ljava/util/List<+TT;>;)Ljava/util/Map$Entry<TT;Ly/Id;>;"
+    static void addDescriptorTypes(String descriptor, Set<String> references) {
+        int i = 0;
+        if (descriptor.startsWith("<")) {
+            // formal type parameters: only their bounds name types
+            i = 1;
+            while (descriptor.charAt(i) != '>') {
+                i = descriptor.indexOf(':', i);
+                while (descriptor.charAt(i) == ':') {
+                    i++;
+                    if (descriptor.charAt(i) != ':') {
+                        i = addType(descriptor, i, references);
+                    }
+                }
+            }
+            i++;
+        }
+        while (i < descriptor.length()) {
+            char c = descriptor.charAt(i);
+            i = c == 'L' || c == 'T' ? addType(descriptor, i, references) : i + 1;
+        }
+    }
+
+    // reads the reference type signature starting at i, returning the index after it
+    private static int addType(String signature, int i, Set<String> references) {
+        while (signature.charAt(i) == '[') {
+            i++;
+        }
+        char c = signature.charAt(i);
+        if (c == 'T') {
+            int end = signature.indexOf(';', i);
+            if (end < 0) {
+                throw new IllegalArgumentException("malformed signature " + signature);
+            }
+            return end + 1;
+        }
+        if (c != 'L') {
+            return i + 1;
+        }
+        int start = ++i;
+        while ("<.;".indexOf(signature.charAt(i)) < 0) {
+            i++;
+        }
+        references.add(typeName(signature.substring(start, i)));
+        while (true) {
+            c = signature.charAt(i);
+            if (c == ';') {
+                return i + 1;
+            } else if (c == '<') {
+                i++;
+                while (signature.charAt(i) != '>') {
+                    c = signature.charAt(i);
+                    if (c == '*') {
+                        i++;
+                    } else {
+                        i = addType(signature, c == '+' || c == '-' ? i + 1 : i, references);
+                    }
+                }
+                i++;
+            } else {
+                // ".Inner" of a nested generic type, part of the same top-level class
+                i++;
+                while ("<.;".indexOf(signature.charAt(i)) < 0) {
+                    i++;
+                }
+            }
+        }
+    }
+
+    // modified UTF-8 as written by DataOutput.writeUTF
+    private static String utf8(ByteBuffer buffer, int offset) {
+        int length = buffer.getShort(offset) & 0xFFFF;
+        char[] chars = new char[length];
+        int count = 0;
+        int position = offset + 2;
+        int end = position + length;
+        while (position < end) {
+            int b = buffer.get(position++) & 0xFF;
+            if (b < 0x80) {
+                chars[count++] = (char) b;
+            } else if ((b & 0xE0) == 0xC0) {
+                chars[count++] = (char) (((b & 0x1F) << 6) | (buffer.get(position++) & 0x3F));
+            } else {
+                chars[count++] = (char) (((b & 0x0F) << 12) | ((buffer.get(position++) & 0x3F) << 6)
+                    | (buffer.get(position++) & 0x3F));
+            }
+        }
+        return new String(chars, 0, count);
+    }
+}
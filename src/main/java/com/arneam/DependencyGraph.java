@@ -0,0 +1,293 @@
+package com.arneam;
+
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.commons.lang3.tuple.Pair;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+// Directed graph over interned class names in compressed sparse row form: the targets of
+// node n are targets[offsets[n]] .. targets[offsets[n + 1] - 1], sorted and without duplicates.
+// Nodes are the ids with at least one incident edge; filtered graphs share the symbol table.
+// Edges weigh 1 unless the graph was built with weights, in which duplicates add up.
+public class DependencyGraph {
+
+    public interface EdgeConsumer {
+        void accept(int source, int target);
+    }
+
+    private final SymbolTable symbols;
+    private final int[] offsets;
+    private final int[] targets;
+    private final int[] weights;
+    private final int[] nodes;
+
+    private DependencyGraph(SymbolTable symbols, int[] offsets, int[] targets, int[] weights) {
+        this.symbols = symbols;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+        this.nodes = incidentNodes();
+    }
+
+    public static DependencyGraph empty() {
+        return new Builder().build();
+    }
+
+    public SymbolTable symbols() {
+        return symbols;
+    }
+
+    public int nodeCount() {
+        return nodes.length;
+    }
+
+    public int edgeCount() {
+        return targets.length;
+    }
+
+    // ids of the graph nodes, ascending
+    public int[] nodeIds() {
+        return nodes;
+    }
+
+    public String name(int node) {
+        return symbols.name(node);
+    }
+
+    public int start(int node) {
+        return node < offsets.length - 1 ? offsets[node] : targets.length;
+    }
+
+    public int end(int node) {
+        return node < offsets.length - 1 ? offsets[node + 1] : targets.length;
+    }
+
+    public int target(int edge) {
+        return targets[edge];
+    }
+
+    public int weight(int edge) {
+        return weights == null ? 1 : weights[edge];
+    }
+
+    public boolean isWeighted() {
+        return weights != null;
+    }
+
+    public int outDegree(int node) {
+        return end(node) - start(node);
+    }
+
+    public void forEachEdge(EdgeConsumer consumer) {
+        for (int source = 0; source < offsets.length - 1; source++) {
+            for (int edge = offsets[source]; edge < offsets[source + 1]; edge++) {
+                consumer.accept(source, targets[edge]);
+            }
+        }
+    }
+
+    // keeps the edges whose target name matches; each name is tested once
+    public DependencyGraph filter(Predicate<String> targetFilter) {
+        boolean[] matches = new boolean[symbols.size()];
+        for (int id = 0; id < matches.length; id++) {
+            matches[id] = targetFilter.test(symbols.name(id));
+        }
+
+        int[] filteredOffsets = new int[offsets.length];
+        int[] filteredTargets = new int[targets.length];
+        int[] filteredWeights = weights == null ? null : new int[weights.length];
+        int count = 0;
+        for (int source = 0; source < offsets.length - 1; source++) {
+            filteredOffsets[source] = count;
+            for (int edge = offsets[source]; edge < offsets[source + 1]; edge++) {
+                if (matches[targets[edge]]) {
+                    if (filteredWeights != null) {
+                        filteredWeights[count] = weights[edge];
+                    }
+                    filteredTargets[count++] = targets[edge];
+                }
+            }
+        }
+        filteredOffsets[offsets.length - 1] = count;
+        return new DependencyGraph(symbols, filteredOffsets, Arrays.copyOf(filteredTargets, count),
+            filteredWeights == null ? null : Arrays.copyOf(filteredWeights, count));
+    }
+
+    public Map<String, Set<String>> toMap() {
+        Map<String, Set<String>> map = new HashMap<>();
+        forEachEdge((source, target) ->
+            map.computeIfAbsent(symbols.name(source), k -> new HashSet<>()).add(symbols.name(target)));
+        return map;
+    }
+
+    public Set<String> nodeNames() {
+        Set<String> names = new HashSet<>(nodes.length * 2);
+        for (int node : nodes) {
+            names.add(symbols.name(node));
+        }
+        return names;
+    }
+
+    public Set<Pair<String, String>> edgePairs() {
+        Set<Pair<String, String>> pairs = new HashSet<>(targets.length * 2);
+        forEachEdge((source, target) -> pairs.add(new ImmutablePair<>(symbols.name(source), symbols.name(target))));
+        return pairs;
+    }
+
+    private int[] incidentNodes() {
+        boolean[] incident = new boolean[symbols.size()];
+        int count = 0;
+        for (int source = 0; source < offsets.length - 1; source++) {
+            if (offsets[source + 1] > offsets[source] && !incident[source]) {
+                incident[source] = true;
+                count++;
+            }
+        }
+        for (int target : targets) {
+            if (!incident[target]) {
+                incident[target] = true;
+                count++;
+            }
+        }
+        int[] ids = new int[count];
+        for (int id = 0, i = 0; id < incident.length; id++) {
+            if (incident[id]) {
+                ids[i++] = id;
+            }
+        }
+        return ids;
+    }
+
+    public static class Builder {
+
+        private final SymbolTable symbols;
+        private int[] sources = new int[64];
+        private int[] targets = new int[64];
+        private int[] weights;
+        private int size;
+
+        public Builder() {
+            this(new SymbolTable());
+        }
+
+        public Builder(SymbolTable symbols) {
+            this.symbols = symbols;
+        }
+
+        public SymbolTable symbols() {
+            return symbols;
+        }
+
+        public Builder addEdge(String source, String target) {
+            return addEdge(symbols.intern(source), symbols.intern(target));
+        }
+
+        public Builder addEdge(int source, int target) {
+            return addEdge(source, target, 1);
+        }
+
+        // a builder given any weight produces a weighted graph
+        public Builder addEdge(int source, int target, int weight) {
+            if (size == sources.length) {
+                sources = Arrays.copyOf(sources, size * 2);
+                targets = Arrays.copyOf(targets, size * 2);
+                if (weights != null) {
+                    weights = Arrays.copyOf(weights, size * 2);
+                }
+            }
+            if (weights == null && weight != 1) {
+                weights = new int[sources.length];
+                Arrays.fill(weights, 0, size, 1);
+            }
+            sources[size] = source;
+            targets[size] = target;
+            if (weights != null) {
+                weights[size] = weight;
+            }
+            size++;
+            return this;
+        }
+
+        public Builder weighted() {
+            if (weights == null) {
+                weights = new int[sources.length];
+                Arrays.fill(weights, 0, size, 1);
+            }
+            return this;
+        }
+
+        public DependencyGraph build() {
+            int nodeCount = symbols.size();
+            int[] offsets = new int[nodeCount + 1];
+            for (int i = 0; i < size; i++) {
+                offsets[sources[i] + 1]++;
+            }
+            for (int node = 0; node < nodeCount; node++) {
+                offsets[node + 1] += offsets[node];
+            }
+
+            if (weights != null) {
+                return buildWeighted(offsets, nodeCount);
+            }
+
+            int[] next = Arrays.copyOf(offsets, nodeCount);
+            int[] sorted = new int[size];
+            for (int i = 0; i < size; i++) {
+                sorted[next[sources[i]]++] = targets[i];
+            }
+
+            // sort each row and squeeze out duplicate edges
+            int count = 0;
+            for (int node = 0; node < nodeCount; node++) {
+                int from = offsets[node];
+                int to = offsets[node + 1];
+                Arrays.sort(sorted, from, to);
+                offsets[node] = count;
+                for (int i = from; i < to; i++) {
+                    if (i == from || sorted[i] != sorted[i - 1]) {
+                        sorted[count++] = sorted[i];
+                    }
+                }
+            }
+            offsets[nodeCount] = count;
+            return new DependencyGraph(symbols, offsets, Arrays.copyOf(sorted, count), null);
+        }
+
+        // same as build, with target and weight packed in a long so rows sort together
+        private DependencyGraph buildWeighted(int[] offsets, int nodeCount) {
+            int[] next = Arrays.copyOf(offsets, nodeCount);
+            long[] sorted = new long[size];
+            for (int i = 0; i < size; i++) {
+                sorted[next[sources[i]]++] = ((long) targets[i] << 32) | (weights[i] & 0xFFFFFFFFL);
+            }
+
+            int[] builtTargets = new int[size];
+            int[] builtWeights = new int[size];
+            int count = 0;
+            for (int node = 0; node < nodeCount; node++) {
+                int from = offsets[node];
+                int to = offsets[node + 1];
+                Arrays.sort(sorted, from, to);
+                offsets[node] = count;
+                for (int i = from; i < to; i++) {
+                    int target = (int) (sorted[i] >>> 32);
+                    int weight = (int) sorted[i];
+                    if (i > from && target == builtTargets[count - 1]) {
+                        builtWeights[count - 1] += weight;
+                    } else {
+                        builtTargets[count] = target;
+                        builtWeights[count++] = weight;
+                    }
+                }
+            }
+            offsets[nodeCount] = count;
+            return new DependencyGraph(symbols, offsets, Arrays.copyOf(builtTargets, count),
+                Arrays.copyOf(builtWeights, count));
+        }
+    }
+}
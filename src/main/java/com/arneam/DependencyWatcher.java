@@ -0,0 +1,204 @@
+package com.arneam;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+// Keeps a loaded ClassDependencies in sync with its project directory. Changed .java files
+// are collected until no event arrived for the debounce delay, then only those files are
+// parsed again and the listener is called, e.g. to write a fresh GraphML file. A directory
+// that is created or moved in is watched and its files are parsed; one that is deleted or
+// moved away takes the classes of the files below it along. If parsing a batch fails, the
+// error listener is told and the next batch scans the whole tree again, so no change is lost.
+public class DependencyWatcher implements Closeable {
+
+    private final ClassDependencies classDependencies;
+    private final Set<String> excludes = new HashSet<>(DirWalker.DEFAULT_EXCLUDES);
+    private final Set<File> pending = new HashSet<>();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "dependency-watcher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private WatchService watchService;
+    private ScheduledFuture<?> flush;
+    private boolean rescan;
+    private long debounceMillis = 500;
+    private Consumer<ClassDependencies> listener = classDependencies -> { };
+    private Consumer<RuntimeException> errorListener = Throwable::printStackTrace;
+
+    public DependencyWatcher(ClassDependencies classDependencies) {
+        this.classDependencies = classDependencies;
+        this.excludes.addAll(classDependencies.getExcludes());
+    }
+
+    public DependencyWatcher debounce(long delay, TimeUnit unit) {
+        this.debounceMillis = unit.toMillis(delay);
+        return this;
+    }
+
+    public DependencyWatcher onChange(Consumer<ClassDependencies> listener) {
+        this.listener = listener;
+        return this;
+    }
+
+    public DependencyWatcher onError(Consumer<RuntimeException> errorListener) {
+        this.errorListener = errorListener;
+        return this;
+    }
+
+    public DependencyWatcher start() {
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            for (Path root : classDependencies.getRoots()) {
+                register(root);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+
+        Thread thread = new Thread(this::watch, "dependency-watcher-events");
+        thread.setDaemon(true);
+        thread.start();
+        return this;
+    }
+
+    @Override
+    public void close() throws IOException {
+        scheduler.shutdownNow();
+        if (watchService != null) {
+            watchService.close();
+        }
+    }
+
+    private void watch() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                Path dir = (Path) key.watchable();
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        changed(null);
+                        continue;
+                    }
+                    Path path = dir.resolve((Path) event.context());
+                    if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(path)) {
+                        if (!excluded(path)) {
+                            register(path).forEach(this::changed);
+                        }
+                    } else {
+                        changed(path);
+                    }
+                }
+                key.reset();
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // closed
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    // a null path means events were lost and the whole tree has to be scanned again
+    private synchronized void changed(Path path) {
+        if (path == null) {
+            rescan = true;
+        } else if (path.toString().endsWith(".java")) {
+            pending.add(path.toFile());
+        } else if (!Files.exists(path)) {
+            // a removed directory only gets this one event, the files below it none
+            List<File> files = classDependencies.getFilesUnder(path);
+            if (files.isEmpty()) {
+                return;
+            }
+            pending.addAll(files);
+        } else {
+            return;
+        }
+
+        if (flush != null) {
+            flush.cancel(false);
+        }
+        flush = scheduler.schedule(this::flush, debounceMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void flush() {
+        List<File> files;
+        boolean full;
+        synchronized (this) {
+            files = new ArrayList<>(pending);
+            full = rescan;
+            pending.clear();
+            rescan = false;
+        }
+
+        try {
+            if (full) {
+                classDependencies.rescan();
+            } else {
+                classDependencies.update(files);
+            }
+            listener.accept(classDependencies);
+        } catch (RuntimeException e) {
+            // the batch may be half applied and is gone from pending
+            synchronized (this) {
+                rescan = true;
+            }
+            errorListener.accept(e);
+        }
+    }
+
+    // registers dir and its subdirectories, returning the source files already inside
+    private List<Path> register(Path dir) throws IOException {
+        List<Path> files = new ArrayList<>();
+        Files.walkFileTree(dir, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path current, BasicFileAttributes attrs) throws IOException {
+                if (!current.equals(dir) && excluded(current)) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                current.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                files.add(file);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException e) {
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        return files;
+    }
+
+    private boolean excluded(Path dir) {
+        Path name = dir.getFileName();
+        return name != null && excludes.contains(name.toString());
+    }
+}
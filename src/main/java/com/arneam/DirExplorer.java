@@ -1,6 +1,7 @@
 package com.arneam;
 
 import java.io.File;
+import java.nio.file.Path;
 
 public class DirExplorer {
 
@@ -21,18 +22,19 @@ public class DirExplorer {
     }
 
     public void explore(File root) {
-        explore(0, "", root);
-    }
-
-    private void explore(int level, String path, File file) {
-        if (file.isDirectory()) {
-            for (File child : file.listFiles()) {
-                explore(level + 1, path + "/" + child.getName(), child);
+        Path rootPath = root.toPath();
+        new DirWalker(rootPath).stream().forEach(path -> {
+            Path relative = rootPath.relativize(path);
+            int level = path.equals(rootPath) ? 0 : relative.getNameCount();
+            StringBuilder relativePath = new StringBuilder();
+            if (level > 0) {
+                relative.forEach(name -> relativePath.append('/').append(name));
             }
-        } else {
-            if (filter.interested(level, path, file)) {
-                fileHandler.handle(level, path, file);
+
+            File file = path.toFile();
+            if (filter.interested(level, relativePath.toString(), file)) {
+                fileHandler.handle(level, relativePath.toString(), file);
             }
-        }
+        });
     }
 }
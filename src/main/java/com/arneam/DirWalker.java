@@ -0,0 +1,100 @@
+package com.arneam;
+
+import java.io.IOException;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+// Lists the files below a root. Excluded directories are pruned before descending,
+// unreadable directories are skipped and symbolic link cycles are detected by
+// walkFileTree itself. The result is a list, so its stream splits evenly for
+// parallel consumers.
+public class DirWalker {
+
+    public static final Set<String> DEFAULT_EXCLUDES =
+        Collections.unmodifiableSet(new HashSet<>(Arrays.asList(".git", ".svn", ".hg")));
+
+    private final Path root;
+    private final Set<String> excludes = new HashSet<>(DEFAULT_EXCLUDES);
+    private Predicate<Path> filter = path -> true;
+    private boolean followLinks = true;
+
+    public DirWalker(Path root) {
+        this.root = root;
+    }
+
+    public DirWalker exclude(String... directoryNames) {
+        excludes.addAll(Arrays.asList(directoryNames));
+        return this;
+    }
+
+    public DirWalker filter(Predicate<Path> filter) {
+        this.filter = filter;
+        return this;
+    }
+
+    public DirWalker followLinks(boolean followLinks) {
+        this.followLinks = followLinks;
+        return this;
+    }
+
+    public Path getRoot() {
+        return root;
+    }
+
+    public Stream<Path> stream() {
+        return files().stream();
+    }
+
+    public List<Path> files() {
+        List<Path> files = new ArrayList<>();
+        if (!Files.exists(root)) {
+            return files;
+        }
+
+        Set<FileVisitOption> options = followLinks
+            ? EnumSet.of(FileVisitOption.FOLLOW_LINKS)
+            : EnumSet.noneOf(FileVisitOption.class);
+        try {
+            Files.walkFileTree(root, options, Integer.MAX_VALUE, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                    Path name = dir.getFileName();
+                    if (!dir.equals(root) && name != null && excludes.contains(name.toString())) {
+                        return FileVisitResult.SKIP_SUBTREE;
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    if (attrs.isRegularFile() && filter.test(file)) {
+                        files.add(file);
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException e) {
+                    // unreadable entries and symbolic link cycles are left out
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return files;
+    }
+}
@@ -0,0 +1,45 @@
+package com.arneam;
+
+import org.apache.commons.lang3.tuple.Pair;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Set;
+
+// Graphviz digraph with fully qualified names; weighted graphs carry the weight on each edge.
+public class DotExporter implements GraphExporter {
+
+    @Override
+    public void export(Set<String> nodes, Set<Pair<String, String>> edges, Writer writer) throws IOException {
+        writer.write("digraph dependencies {\n");
+        for (String node : nodes) {
+            writer.write("  " + quote(node) + ";\n");
+        }
+        for (Pair<String, String> edge : edges) {
+            writer.write("  " + quote(edge.getKey()) + " -> " + quote(edge.getValue()) + ";\n");
+        }
+        writer.write("}\n");
+    }
+
+    @Override
+    public void export(DependencyGraph graph, Writer writer) throws IOException {
+        writer.write("digraph dependencies {\n");
+        for (int node : graph.nodeIds()) {
+            writer.write("  " + quote(graph.name(node)) + ";\n");
+        }
+        for (int node : graph.nodeIds()) {
+            for (int edge = graph.start(node); edge < graph.end(node); edge++) {
+                writer.write("  " + quote(graph.name(node)) + " -> " + quote(graph.name(graph.target(edge))));
+                if (graph.isWeighted()) {
+                    writer.write(" [weight=" + graph.weight(edge) + "]");
+                }
+                writer.write(";\n");
+            }
+        }
+        writer.write("}\n");
+    }
+
+    static String quote(String id) {
+        return '"' + id.replace("\\", "\\\\").replace("\"", "\\\"") + '"';
+    }
+}
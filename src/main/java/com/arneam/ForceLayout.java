@@ -0,0 +1,266 @@
+package com.arneam;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+// Fruchterman-Reingold force-directed layout with Barnes-Hut repulsion: every iteration
+// builds a quadtree over the current positions and each node sums the pull of whole
+// cells that look small from where it stands (size / distance < theta) instead of
+// visiting every other node, so an iteration costs O(n log n + e). Repulsion is computed
+// for all nodes in parallel against the read-only tree; attraction walks the edges once.
+// A weak gravity towards the centre keeps disconnected parts from drifting apart.
+// Positions come out in layout units, roughly sqrt(n) wide.
+public class ForceLayout {
+
+    private static final int MAX_DEPTH = 32;
+    private static final double GRAVITY = 0.05;
+
+    private int iterations = 100;
+    private double theta = 0.8;
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private long seed = 42;
+
+    public ForceLayout iterations(int iterations) {
+        this.iterations = iterations;
+        return this;
+    }
+
+    // 0 is exact (all pairs), larger values trade accuracy for speed
+    public ForceLayout theta(double theta) {
+        this.theta = theta;
+        return this;
+    }
+
+    public ForceLayout parallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be at least 1: " + parallelism);
+        }
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    public ForceLayout seed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    // positions of nodes 0 .. nodeCount - 1 as {x[], y[]}; edges are undirected pairs of
+    // node indexes sources[i] - targets[i]
+    public double[][] layout(int nodeCount, int[] sources, int[] targets) {
+        double[] x = new double[nodeCount];
+        double[] y = new double[nodeCount];
+        double side = Math.sqrt(nodeCount) + 1;
+        Random random = new Random(seed);
+        for (int i = 0; i < nodeCount; i++) {
+            x[i] = random.nextDouble() * side;
+            y[i] = random.nextDouble() * side;
+        }
+        if (nodeCount < 2) {
+            return new double[][]{x, y};
+        }
+
+        double[] dx = new double[nodeCount];
+        double[] dy = new double[nodeCount];
+        double temperature = side / 10;
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            for (int iteration = 0; iteration < iterations; iteration++) {
+                QuadTree tree = new QuadTree(x, y);
+                double centreX = Arrays.stream(x).average().orElse(0);
+                double centreY = Arrays.stream(y).average().orElse(0);
+                pool.submit(() -> IntStream.range(0, nodeCount).parallel().forEach(node -> {
+                    double[] force = tree.repulsion(node, theta);
+                    dx[node] = force[0] - GRAVITY * (x[node] - centreX);
+                    dy[node] = force[1] - GRAVITY * (y[node] - centreY);
+                })).get();
+
+                for (int edge = 0; edge < sources.length; edge++) {
+                    int source = sources[edge];
+                    int target = targets[edge];
+                    double ex = x[source] - x[target];
+                    double ey = y[source] - y[target];
+                    double distance = Math.max(Math.sqrt(ex * ex + ey * ey), 0.01);
+                    // f = d^2 / k with k = 1, applied along the unit vector
+                    double pull = distance;
+                    dx[source] -= ex * pull;
+                    dy[source] -= ey * pull;
+                    dx[target] += ex * pull;
+                    dy[target] += ey * pull;
+                }
+
+                for (int node = 0; node < nodeCount; node++) {
+                    double length = Math.sqrt(dx[node] * dx[node] + dy[node] * dy[node]);
+                    if (length > 0) {
+                        double step = Math.min(length, temperature) / length;
+                        x[node] += dx[node] * step;
+                        y[node] += dy[node] * step;
+                    }
+                }
+                temperature *= 0.95;
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            throw new RuntimeException(e);
+        } finally {
+            pool.shutdown();
+        }
+        return new double[][]{x, y};
+    }
+
+    // Cells live in parallel arrays; child[4 * cell + quadrant] is -1 when empty. A leaf
+    // holds one body, or several coincident ones once MAX_DEPTH is reached.
+    static final class QuadTree {
+
+        private final double[] x;
+        private final double[] y;
+        private double[] cellX;
+        private double[] cellY;
+        private double[] size;
+        private double[] mass;
+        private double[] massX;
+        private double[] massY;
+        private int[] body;
+        private int[] child;
+        private int cells;
+
+        QuadTree(double[] x, double[] y) {
+            this.x = x;
+            this.y = y;
+            int capacity = 2 * x.length + 1;
+            cellX = new double[capacity];
+            cellY = new double[capacity];
+            size = new double[capacity];
+            mass = new double[capacity];
+            massX = new double[capacity];
+            massY = new double[capacity];
+            body = new int[capacity];
+            child = new int[4 * capacity];
+
+            double minX = Double.MAX_VALUE, minY = Double.MAX_VALUE;
+            double maxX = -Double.MAX_VALUE, maxY = -Double.MAX_VALUE;
+            for (int i = 0; i < x.length; i++) {
+                minX = Math.min(minX, x[i]);
+                minY = Math.min(minY, y[i]);
+                maxX = Math.max(maxX, x[i]);
+                maxY = Math.max(maxY, y[i]);
+            }
+            newCell(minX, minY, Math.max(Math.max(maxX - minX, maxY - minY), 1e-9) * 1.0001);
+            for (int i = 0; i < x.length; i++) {
+                insert(i);
+            }
+        }
+
+        private int newCell(double left, double top, double side) {
+            if (cells == body.length) {
+                grow();
+            }
+            int cell = cells++;
+            cellX[cell] = left;
+            cellY[cell] = top;
+            size[cell] = side;
+            body[cell] = -1;
+            for (int q = 0; q < 4; q++) {
+                child[4 * cell + q] = -1;
+            }
+            return cell;
+        }
+
+        private void insert(int node) {
+            int cell = 0;
+            for (int depth = 0; ; depth++) {
+                double total = mass[cell] + 1;
+                massX[cell] = (massX[cell] * mass[cell] + x[node]) / total;
+                massY[cell] = (massY[cell] * mass[cell] + y[node]) / total;
+                mass[cell] = total;
+
+                if (total == 1) {
+                    body[cell] = node;
+                    return;
+                }
+                if (depth == MAX_DEPTH) {
+                    return;
+                }
+                if (body[cell] >= 0) {
+                    // push the resident body one level down
+                    int resident = body[cell];
+                    body[cell] = -1;
+                    int quadrant = quadrant(cell, resident);
+                    int below = childCell(cell, quadrant);
+                    mass[below] = 1;
+                    massX[below] = x[resident];
+                    massY[below] = y[resident];
+                    body[below] = resident;
+                }
+                cell = childCell(cell, quadrant(cell, node));
+            }
+        }
+
+        private int quadrant(int cell, int node) {
+            double half = size[cell] / 2;
+            return (x[node] >= cellX[cell] + half ? 1 : 0) + (y[node] >= cellY[cell] + half ? 2 : 0);
+        }
+
+        private int childCell(int cell, int quadrant) {
+            int existing = child[4 * cell + quadrant];
+            if (existing >= 0) {
+                return existing;
+            }
+            double half = size[cell] / 2;
+            int created = newCell(cellX[cell] + (quadrant & 1) * half, cellY[cell] + (quadrant >> 1) * half, half);
+            child[4 * cell + quadrant] = created;
+            return created;
+        }
+
+        private void grow() {
+            int capacity = body.length * 2;
+            cellX = Arrays.copyOf(cellX, capacity);
+            cellY = Arrays.copyOf(cellY, capacity);
+            size = Arrays.copyOf(size, capacity);
+            mass = Arrays.copyOf(mass, capacity);
+            massX = Arrays.copyOf(massX, capacity);
+            massY = Arrays.copyOf(massY, capacity);
+            body = Arrays.copyOf(body, capacity);
+            child = Arrays.copyOf(child, 4 * capacity);
+        }
+
+        // f = k^2 / d with k = 1, summed over bodies and far-away cells
+        double[] repulsion(int node, double theta) {
+            double fx = 0;
+            double fy = 0;
+            int[] stack = new int[4 * MAX_DEPTH + 4];
+            int top = 0;
+            stack[top++] = 0;
+            while (top > 0) {
+                int cell = stack[--top];
+                if (body[cell] == node) {
+                    continue;
+                }
+                double ex = x[node] - massX[cell];
+                double ey = y[node] - massY[cell];
+                double distanceSquared = ex * ex + ey * ey;
+                boolean leaf = child[4 * cell] < 0 && child[4 * cell + 1] < 0
+                    && child[4 * cell + 2] < 0 && child[4 * cell + 3] < 0;
+                if (leaf || size[cell] * size[cell] < theta * theta * distanceSquared) {
+                    if (distanceSquared < 1e-6) {
+                        // coincident bodies: push apart in a direction fixed by the node
+                        ex = Math.cos(node);
+                        ey = Math.sin(node);
+                        distanceSquared = 1e-2;
+                    }
+                    double push = mass[cell] / distanceSquared;
+                    fx += ex * push;
+                    fy += ey * push;
+                } else {
+                    for (int q = 0; q < 4; q++) {
+                        if (child[4 * cell + q] >= 0) {
+                            stack[top++] = child[4 * cell + q];
+                        }
+                    }
+                }
+            }
+            return new double[]{fx, fy};
+        }
+    }
+}
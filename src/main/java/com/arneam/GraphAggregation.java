@@ -0,0 +1,78 @@
+package com.arneam;
+
+import java.util.Map;
+import java.util.function.Function;
+
+// Collapses a class graph into a coarser one (packages, name prefixes, modules). Each
+// symbol is mapped to its group once, then a single pass over the edges sums them into
+// weighted group edges. Edges inside a group are dropped unless keepInternal is set.
+public class GraphAggregation {
+
+    private final Function<String, String> groupOf;
+    private boolean keepInternal;
+
+    public GraphAggregation(Function<String, String> groupOf) {
+        this.groupOf = groupOf;
+    }
+
+    public static GraphAggregation byPackage() {
+        return new GraphAggregation(GraphAggregation::packageOf);
+    }
+
+    public static GraphAggregation byPrefix(int segments) {
+        if (segments < 1) {
+            throw new IllegalArgumentException("segments must be at least 1: " + segments);
+        }
+        return new GraphAggregation(name -> prefix(name, segments));
+    }
+
+    // names missing from modules, such as JDK or library classes, are grouped by package
+    public static GraphAggregation byModule(Map<String, String> modules) {
+        return new GraphAggregation(name -> {
+            String module = modules.get(name);
+            return module != null ? module : packageOf(name);
+        });
+    }
+
+    public GraphAggregation keepInternal(boolean keepInternal) {
+        this.keepInternal = keepInternal;
+        return this;
+    }
+
+    public DependencyGraph aggregate(DependencyGraph graph) {
+        SymbolTable symbols = graph.symbols();
+        DependencyGraph.Builder builder = new DependencyGraph.Builder().weighted();
+
+        int[] groups = new int[symbols.size()];
+        for (int id = 0; id < groups.length; id++) {
+            groups[id] = builder.symbols().intern(groupOf.apply(symbols.name(id)));
+        }
+
+        for (int node : graph.nodeIds()) {
+            for (int edge = graph.start(node); edge < graph.end(node); edge++) {
+                int source = groups[node];
+                int target = groups[graph.target(edge)];
+                if (source != target || keepInternal) {
+                    builder.addEdge(source, target, graph.weight(edge));
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    static String packageOf(String name) {
+        int last = name.lastIndexOf('.');
+        return last < 0 ? name : name.substring(0, last);
+    }
+
+    static String prefix(String name, int segments) {
+        int end = -1;
+        for (int i = 0; i < segments; i++) {
+            end = name.indexOf('.', end + 1);
+            if (end < 0) {
+                return name;
+            }
+        }
+        return name.substring(0, end);
+    }
+}
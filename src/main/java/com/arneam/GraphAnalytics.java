@@ -0,0 +1,253 @@
+package com.arneam;
+
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.commons.lang3.tuple.Pair;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+// Structural queries over a DependencyGraph. Every traversal works on the CSR arrays with
+// explicit stacks and queues, so deep graphs cannot overflow the call stack.
+public class GraphAnalytics {
+
+    public static final String[] NODE_ATTRIBUTES = {"inDegree", "outDegree", "component", "inCycle"};
+
+    private final DependencyGraph graph;
+    private int[] inDegrees;
+    private int[] reverseOffsets;
+    private int[] reverseSources;
+    private int[] components;
+    private int[] componentSizes;
+
+    public GraphAnalytics(DependencyGraph graph) {
+        this.graph = graph;
+    }
+
+    public int inDegree(int node) {
+        if (inDegrees == null) {
+            inDegrees = new int[graph.symbols().size()];
+            graph.forEachEdge((source, target) -> inDegrees[target]++);
+        }
+        return inDegrees[node];
+    }
+
+    public int outDegree(int node) {
+        return graph.outDegree(node);
+    }
+
+    // the limit nodes with the most dependents, highest first
+    public List<Pair<String, Integer>> fanIn(int limit) {
+        return rank(this::inDegree, limit);
+    }
+
+    // the limit nodes with the most dependencies, highest first
+    public List<Pair<String, Integer>> fanOut(int limit) {
+        return rank(this::outDegree, limit);
+    }
+
+    // component id of every symbol, -1 for symbols that are not graph nodes
+    public int[] stronglyConnectedComponents() {
+        if (components == null) {
+            tarjan();
+        }
+        return components;
+    }
+
+    public int componentCount() {
+        stronglyConnectedComponents();
+        return componentSizes.length;
+    }
+
+    // components with more than one class, or a class depending on itself, largest first
+    public List<List<String>> cycles() {
+        int[] component = stronglyConnectedComponents();
+        List<List<String>> cycles = new ArrayList<>();
+        int[] index = new int[componentSizes.length];
+        Arrays.fill(index, -1);
+        for (int node : graph.nodeIds()) {
+            if (inCycle(node)) {
+                if (index[component[node]] < 0) {
+                    index[component[node]] = cycles.size();
+                    cycles.add(new ArrayList<>());
+                }
+                cycles.get(index[component[node]]).add(graph.name(node));
+            }
+        }
+        cycles.sort(Comparator.comparingInt((List<String> it) -> it.size()).reversed());
+        return cycles;
+    }
+
+    public boolean inCycle(int node) {
+        int[] component = stronglyConnectedComponents();
+        return component[node] >= 0 && (componentSizes[component[node]] > 1 || hasSelfLoop(node));
+    }
+
+    // everything the class depends on, directly or not
+    public Set<String> transitiveDependencies(String className) {
+        return reachable(className, false);
+    }
+
+    // everything that depends on the class, directly or not
+    public Set<String> transitiveDependents(String className) {
+        return reachable(className, true);
+    }
+
+    public GraphExporter exporter() {
+        return (nodes, edges, writer) -> {
+            SymbolTable symbols = graph.symbols();
+            try (GraphMLWriter graphML = new GraphMLWriter(writer, NODE_ATTRIBUTES)) {
+                for (String name : nodes) {
+                    int node = symbols.id(name);
+                    graphML.node(GraphMLWriter.simplify(name), node < 0
+                        ? new int[] {0, 0, -1, 0}
+                        : new int[] {inDegree(node), outDegree(node), stronglyConnectedComponents()[node],
+                            inCycle(node) ? 1 : 0});
+                }
+                for (Pair<String, String> edge : edges) {
+                    graphML.edge(GraphMLWriter.simplify(edge.getKey()), GraphMLWriter.simplify(edge.getValue()), 1.0);
+                }
+            }
+        };
+    }
+
+    private List<Pair<String, Integer>> rank(IntUnaryOperator degree, int limit) {
+        return IntStream.of(graph.nodeIds())
+            .boxed()
+            .sorted(Comparator.comparingInt((Integer node) -> degree.applyAsInt(node)).reversed()
+                .thenComparing(node -> graph.name(node)))
+            .limit(limit)
+            .map(node -> new ImmutablePair<>(graph.name(node), degree.applyAsInt(node)))
+            .collect(Collectors.toList());
+    }
+
+    private boolean hasSelfLoop(int node) {
+        for (int edge = graph.start(node); edge < graph.end(node); edge++) {
+            if (graph.target(edge) == node) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Set<String> reachable(String className, boolean reverse) {
+        Set<String> result = new HashSet<>();
+        int start = graph.symbols().id(className);
+        if (start < 0) {
+            return result;
+        }
+        if (reverse) {
+            buildReverse();
+        }
+
+        boolean[] visited = new boolean[graph.symbols().size()];
+        int[] queue = new int[visited.length + 1];
+        int head = 0;
+        int tail = 0;
+        // start is only marked once reached again, so classes on a cycle include themselves
+        queue[tail++] = start;
+        while (head < tail) {
+            int node = queue[head++];
+            int from = reverse ? reverseOffsets[node] : graph.start(node);
+            int to = reverse ? reverseOffsets[node + 1] : graph.end(node);
+            for (int edge = from; edge < to; edge++) {
+                int next = reverse ? reverseSources[edge] : graph.target(edge);
+                if (!visited[next]) {
+                    visited[next] = true;
+                    queue[tail++] = next;
+                    result.add(graph.name(next));
+                }
+            }
+        }
+        return result;
+    }
+
+    private void buildReverse() {
+        if (reverseOffsets != null) {
+            return;
+        }
+        int size = graph.symbols().size();
+        int[] offsets = new int[size + 1];
+        graph.forEachEdge((source, target) -> offsets[target + 1]++);
+        for (int node = 0; node < size; node++) {
+            offsets[node + 1] += offsets[node];
+        }
+        int[] next = Arrays.copyOf(offsets, size);
+        int[] sources = new int[graph.edgeCount()];
+        graph.forEachEdge((source, target) -> sources[next[target]++] = source);
+        reverseSources = sources;
+        reverseOffsets = offsets;
+    }
+
+    private void tarjan() {
+        int size = graph.symbols().size();
+        int[] index = new int[size];
+        int[] low = new int[size];
+        boolean[] onStack = new boolean[size];
+        int[] stack = new int[size];
+        int[] callStack = new int[size];
+        int[] nextEdge = new int[size];
+        int[] component = new int[size];
+        Arrays.fill(index, -1);
+        Arrays.fill(component, -1);
+        List<Integer> sizes = new ArrayList<>();
+        int counter = 0;
+        int top = 0;
+
+        for (int root : graph.nodeIds()) {
+            if (index[root] >= 0) {
+                continue;
+            }
+            int depth = 0;
+            index[root] = low[root] = counter++;
+            stack[top++] = root;
+            onStack[root] = true;
+            callStack[depth] = root;
+            nextEdge[depth++] = graph.start(root);
+
+            while (depth > 0) {
+                int node = callStack[depth - 1];
+                if (nextEdge[depth - 1] < graph.end(node)) {
+                    int next = graph.target(nextEdge[depth - 1]++);
+                    if (index[next] < 0) {
+                        index[next] = low[next] = counter++;
+                        stack[top++] = next;
+                        onStack[next] = true;
+                        callStack[depth] = next;
+                        nextEdge[depth++] = graph.start(next);
+                    } else if (onStack[next]) {
+                        low[node] = Math.min(low[node], index[next]);
+                    }
+                    continue;
+                }
+
+                depth--;
+                if (low[node] == index[node]) {
+                    int id = sizes.size();
+                    int count = 0;
+                    int member;
+                    do {
+                        member = stack[--top];
+                        onStack[member] = false;
+                        component[member] = id;
+                        count++;
+                    } while (member != node);
+                    sizes.add(count);
+                }
+                if (depth > 0) {
+                    int parent = callStack[depth - 1];
+                    low[parent] = Math.min(low[parent], low[node]);
+                }
+            }
+        }
+
+        components = component;
+        componentSizes = sizes.stream().mapToInt(Integer::intValue).toArray();
+    }
+}
@@ -0,0 +1,350 @@
+package com.arneam;
+
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.commons.lang3.tuple.Pair;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+// What changed between a baseline snapshot and the current graph. The baseline stays
+// memory mapped and is compared row by row: for each source class the two sorted target
+// lists are merged as ids, so neither graph is copied into string sets. Given the classes
+// whose files changed, only their rows are compared, since edges leave from the class
+// that declares the import; nodes are checked only where an edge appeared or vanished.
+// An added edge a -> b closes a new cycle when b reaches a in the current graph but a and
+// b were not already in one strongly connected component of the baseline; the cycle is
+// reported as the classes on a shortest path back from b to a. Only the added edges are
+// searched from, the current graph is never analysed as a whole. The searches share their
+// buffers and clear only what they visited, and the baseline components are found once,
+// by a single Tarjan pass over the part of the baseline the added edges reach.
+public class GraphDiff {
+
+    private static final Comparator<Pair<String, String>> EDGE_ORDER =
+        Comparator.comparing((Pair<String, String> it) -> it.getKey()).thenComparing(Pair::getValue);
+
+    private final Set<String> addedNodes = new TreeSet<>();
+    private final Set<String> removedNodes = new TreeSet<>();
+    private final List<Pair<String, String>> addedEdges = new ArrayList<>();
+    private final List<Pair<String, String>> removedEdges = new ArrayList<>();
+    private final List<List<String>> newCycles = new ArrayList<>();
+    private long searchedNodes;
+
+    private GraphDiff() {
+    }
+
+    public static GraphDiff between(GraphSnapshot baseline, DependencyGraph current) {
+        Set<String> sources = new HashSet<>();
+        for (int node = 0; node < baseline.nodeCount(); node++) {
+            if (baseline.outDegree(node) > 0) {
+                sources.add(baseline.name(node));
+            }
+        }
+        for (int node : current.nodeIds()) {
+            if (current.outDegree(node) > 0) {
+                sources.add(current.name(node));
+            }
+        }
+        return between(baseline, current, sources);
+    }
+
+    // compares only the rows of changedClasses, e.g. ClassDependencies.changedClasses()
+    // when the baseline was taken at the last full scan
+    public static GraphDiff between(GraphSnapshot baseline, DependencyGraph current,
+                                    Collection<String> changedClasses) {
+        GraphDiff diff = new GraphDiff();
+        SymbolTable symbols = current.symbols();
+        boolean[] present = new boolean[symbols.size()];
+        for (int node : current.nodeIds()) {
+            present[node] = true;
+        }
+
+        Set<String> touched = new HashSet<>();
+        for (String className : changedClasses) {
+            int before = baseline.id(className);
+            int after = symbols.id(className);
+
+            int[] old = new int[before < 0 ? 0 : baseline.outDegree(before)];
+            int missing = 0;
+            for (int i = 0; i < old.length; i++) {
+                String target = baseline.name(baseline.target(baseline.start(before) + i));
+                int id = symbols.id(target);
+                if (id < 0) {
+                    // unknown to the current graph: removed for sure
+                    diff.removedEdges.add(new ImmutablePair<>(className, target));
+                    touched.add(target);
+                    missing++;
+                } else {
+                    old[i - missing] = id;
+                }
+            }
+            old = Arrays.copyOf(old, old.length - missing);
+            Arrays.sort(old);
+
+            int start = after < 0 ? 0 : current.start(after);
+            int end = after < 0 ? 0 : current.end(after);
+            int i = 0;
+            int edge = start;
+            while (i < old.length || edge < end) {
+                if (edge == end || (i < old.length && old[i] < current.target(edge))) {
+                    diff.removedEdges.add(new ImmutablePair<>(className, symbols.name(old[i])));
+                    touched.add(symbols.name(old[i++]));
+                } else if (i == old.length || current.target(edge) < old[i]) {
+                    diff.addedEdges.add(new ImmutablePair<>(className, symbols.name(current.target(edge))));
+                    touched.add(symbols.name(current.target(edge++)));
+                } else {
+                    i++;
+                    edge++;
+                }
+            }
+            if (old.length + missing != 0 || end != start) {
+                touched.add(className);
+            }
+        }
+
+        for (String name : touched) {
+            int id = symbols.id(name);
+            boolean now = id >= 0 && present[id];
+            boolean then = baseline.id(name) >= 0;
+            if (now && !then) {
+                diff.addedNodes.add(name);
+            } else if (then && !now) {
+                diff.removedNodes.add(name);
+            }
+        }
+        diff.addedEdges.sort(EDGE_ORDER);
+        diff.removedEdges.sort(EDGE_ORDER);
+
+        Set<List<String>> cycles = new LinkedHashSet<>();
+        CycleSearch search = new CycleSearch(baseline, current);
+        for (Pair<String, String> edge : diff.addedEdges) {
+            int source = symbols.id(edge.getKey());
+            int target = symbols.id(edge.getValue());
+            List<String> cycle = search.pathFrom(target, source);
+            if (cycle != null && (source == target || !search.wasStronglyConnected(edge.getKey(), edge.getValue()))) {
+                Collections.sort(cycle);
+                cycles.add(cycle);
+            }
+        }
+        diff.newCycles.addAll(cycles);
+        diff.searchedNodes = search.visited;
+        return diff;
+    }
+
+    // nodes visited by the cycle searches, both graphs together
+    long searchedNodes() {
+        return searchedNodes;
+    }
+
+    public Set<String> getAddedNodes() {
+        return addedNodes;
+    }
+
+    public Set<String> getRemovedNodes() {
+        return removedNodes;
+    }
+
+    public List<Pair<String, String>> getAddedEdges() {
+        return addedEdges;
+    }
+
+    public List<Pair<String, String>> getRemovedEdges() {
+        return removedEdges;
+    }
+
+    public List<List<String>> getNewCycles() {
+        return newCycles;
+    }
+
+    public boolean isEmpty() {
+        return addedNodes.isEmpty() && removedNodes.isEmpty() && addedEdges.isEmpty() && removedEdges.isEmpty();
+    }
+
+    // new dependencies or cycles, what a CI gate fails on; removals are improvements
+    public boolean hasRegressions() {
+        return !addedEdges.isEmpty() || !newCycles.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "+" + addedNodes.size() + "/-" + removedNodes.size() + " nodes, +" + addedEdges.size()
+            + "/-" + removedEdges.size() + " edges, " + newCycles.size() + " new cycle(s)";
+    }
+
+    public void writeJson(Path path) {
+        try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            writeJson(writer);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public void writeJson(Writer writer) throws IOException {
+        writer.write("{\n");
+        writer.write("  \"addedNodes\": " + names(addedNodes) + ",\n");
+        writer.write("  \"removedNodes\": " + names(removedNodes) + ",\n");
+        writer.write("  \"addedEdges\": " + edges(addedEdges) + ",\n");
+        writer.write("  \"removedEdges\": " + edges(removedEdges) + ",\n");
+        writer.write("  \"newCycles\": [");
+        for (int i = 0; i < newCycles.size(); i++) {
+            writer.write((i == 0 ? "" : ",") + "\n    " + names(newCycles.get(i)));
+        }
+        writer.write(newCycles.isEmpty() ? "]\n" : "\n  ]\n");
+        writer.write("}\n");
+        writer.flush();
+    }
+
+    private static String names(Collection<String> names) {
+        StringBuilder json = new StringBuilder("[");
+        for (String name : names) {
+            json.append(json.length() == 1 ? "" : ", ").append(Json.quote(name));
+        }
+        return json.append(']').toString();
+    }
+
+    private static String edges(List<Pair<String, String>> edges) {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < edges.size(); i++) {
+            json.append(i == 0 ? "" : ",").append("\n    {\"source\": ").append(Json.quote(edges.get(i).getKey()))
+                .append(", \"target\": ").append(Json.quote(edges.get(i).getValue())).append('}');
+        }
+        return json.append(edges.isEmpty() ? "]" : "\n  ]").toString();
+    }
+
+    private static final class CycleSearch {
+
+        private final GraphSnapshot baseline;
+        private final DependencyGraph current;
+        private final int[] parents;
+        private final int[] queue;
+        // baseline Tarjan state, allocated on the first lookup
+        private int[] component;
+        private int[] index;
+        private int[] low;
+        private int[] cursor;
+        private int[] stack;
+        private int[] calls;
+        private int counter;
+        private int components;
+        private long visited;
+
+        CycleSearch(GraphSnapshot baseline, DependencyGraph current) {
+            this.baseline = baseline;
+            this.current = current;
+            parents = new int[current.symbols().size()];
+            queue = new int[parents.length];
+            Arrays.fill(parents, -1);
+        }
+
+        // the nodes of a shortest path from one node to another, null when there is none
+        List<String> pathFrom(int from, int to) {
+            int head = 0;
+            int tail = 0;
+            queue[tail++] = from;
+            parents[from] = from;
+            while (head < tail && parents[to] < 0) {
+                int node = queue[head++];
+                for (int edge = current.start(node); edge < current.end(node); edge++) {
+                    int next = current.target(edge);
+                    if (parents[next] < 0) {
+                        parents[next] = node;
+                        queue[tail++] = next;
+                    }
+                }
+            }
+            List<String> path = null;
+            if (parents[to] >= 0) {
+                path = new ArrayList<>();
+                for (int node = to; node != from; node = parents[node]) {
+                    path.add(current.name(node));
+                }
+                path.add(current.name(from));
+            }
+            // the queue holds exactly the nodes this search marked
+            for (int i = 0; i < tail; i++) {
+                parents[queue[i]] = -1;
+            }
+            visited += tail;
+            return path;
+        }
+
+        boolean wasStronglyConnected(String a, String b) {
+            int first = baseline.id(a);
+            int second = baseline.id(b);
+            return first >= 0 && second >= 0 && componentOf(first) == componentOf(second);
+        }
+
+        // iterative Tarjan from node; every node it reaches gets its component, so no
+        // baseline node is visited twice however many edges are looked up
+        private int componentOf(int node) {
+            if (component == null) {
+                int nodeCount = baseline.nodeCount();
+                component = new int[nodeCount];
+                index = new int[nodeCount];
+                low = new int[nodeCount];
+                cursor = new int[nodeCount];
+                stack = new int[nodeCount];
+                calls = new int[nodeCount];
+                Arrays.fill(component, -1);
+                Arrays.fill(index, -1);
+            }
+            if (index[node] >= 0) {
+                return component[node];
+            }
+
+            int stackTop = 0;
+            int callTop = 0;
+            visit(node);
+            calls[callTop++] = node;
+            stack[stackTop++] = node;
+            while (callTop > 0) {
+                int top = calls[callTop - 1];
+                if (cursor[top] < baseline.end(top)) {
+                    int next = baseline.target(cursor[top]++);
+                    if (index[next] < 0) {
+                        visit(next);
+                        calls[callTop++] = next;
+                        stack[stackTop++] = next;
+                    } else if (component[next] < 0) {
+                        low[top] = Math.min(low[top], index[next]);
+                    }
+                    continue;
+                }
+                callTop--;
+                if (callTop > 0) {
+                    int caller = calls[callTop - 1];
+                    low[caller] = Math.min(low[caller], low[top]);
+                }
+                if (low[top] == index[top]) {
+                    int member;
+                    do {
+                        member = stack[--stackTop];
+                        component[member] = components;
+                    } while (member != top);
+                    components++;
+                }
+            }
+            return component[node];
+        }
+
+        private void visit(int node) {
+            index[node] = counter;
+            low[node] = counter++;
+            cursor[node] = baseline.start(node);
+            visited++;
+        }
+    }
+}
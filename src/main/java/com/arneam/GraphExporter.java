@@ -0,0 +1,16 @@
+package com.arneam;
+
+import org.apache.commons.lang3.tuple.Pair;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Set;
+
+public interface GraphExporter {
+
+    void export(Set<String> nodes, Set<Pair<String, String>> edges, Writer writer) throws IOException;
+
+    default void export(DependencyGraph graph, Writer writer) throws IOException {
+        export(graph.nodeNames(), graph.edgePairs(), writer);
+    }
+}
@@ -0,0 +1,52 @@
+package com.arneam;
+
+import org.apache.commons.lang3.tuple.Pair;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Set;
+
+public class GraphMLExporter implements GraphExporter {
+
+    private final boolean simplifyNames;
+
+    public GraphMLExporter() {
+        this(true);
+    }
+
+    // simplified names keep only the last two segments and may collide; aggregated
+    // graphs (packages, modules) are better written with their full names
+    public GraphMLExporter(boolean simplifyNames) {
+        this.simplifyNames = simplifyNames;
+    }
+
+    @Override
+    public void export(Set<String> nodes, Set<Pair<String, String>> edges, Writer writer) throws IOException {
+        try (GraphMLWriter graphML = new GraphMLWriter(writer)) {
+            for (String node : nodes) {
+                graphML.node(label(node));
+            }
+            for (Pair<String, String> edge : edges) {
+                graphML.edge(label(edge.getKey()), label(edge.getValue()), 1.0);
+            }
+        }
+    }
+
+    @Override
+    public void export(DependencyGraph graph, Writer writer) throws IOException {
+        try (GraphMLWriter graphML = new GraphMLWriter(writer)) {
+            for (int node : graph.nodeIds()) {
+                graphML.node(label(graph.name(node)));
+            }
+            for (int node : graph.nodeIds()) {
+                for (int edge = graph.start(node); edge < graph.end(node); edge++) {
+                    graphML.edge(label(graph.name(node)), label(graph.name(graph.target(edge))), graph.weight(edge));
+                }
+            }
+        }
+    }
+
+    private String label(String name) {
+        return simplifyNames ? GraphMLWriter.simplify(name) : name;
+    }
+}
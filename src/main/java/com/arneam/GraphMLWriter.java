@@ -0,0 +1,107 @@
+package com.arneam;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+
+// according to https://en.wikipedia.org/wiki/GraphML and
+// https://gephi.org/users/supported-graph-formats/graphml-format/
+//
+// Nodes and edges are written as they come, so memory use does not grow with the graph.
+public class GraphMLWriter implements Closeable {
+
+    private static final String INDENT = "    ";
+
+    private final Writer writer;
+    private final int nodeAttributeCount;
+    private long edgeCount;
+
+    // nodeAttributes are declared as integer keys n0, n1, ... in the given order
+    public GraphMLWriter(Writer writer, String... nodeAttributes) throws IOException {
+        this.writer = writer;
+        this.nodeAttributeCount = nodeAttributes.length;
+        writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"no\"?>\n");
+        writer.write("<graphml xmlns=\"http://graphml.graphdrawing.org/xmlns\""
+            + " xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\""
+            + " xsi:schemaLocation=\"http://graphml.graphdrawing.org/xmlns/1.0/graphml.xsd\">\n");
+        writer.write(INDENT + "<key attr.name=\"weight\" attr.type=\"double\" for=\"edge\" id=\"d1\"/>\n");
+        for (int i = 0; i < nodeAttributes.length; i++) {
+            writer.write(INDENT + "<key attr.name=\"");
+            writeEscaped(nodeAttributes[i]);
+            writer.write("\" attr.type=\"int\" for=\"node\" id=\"n" + i + "\"/>\n");
+        }
+        writer.write(INDENT + "<graph edgedefault=\"undirected\" id=\"G\">\n");
+    }
+
+    public void node(String id) throws IOException {
+        writer.write(INDENT + INDENT + "<node id=\"");
+        writeEscaped(id);
+        writer.write("\"/>\n");
+    }
+
+    public void node(String id, int... attributeValues) throws IOException {
+        if (attributeValues.length != nodeAttributeCount) {
+            throw new IllegalArgumentException("expected " + nodeAttributeCount + " attribute values for " + id);
+        }
+        if (attributeValues.length == 0) {
+            node(id);
+            return;
+        }
+        writer.write(INDENT + INDENT + "<node id=\"");
+        writeEscaped(id);
+        writer.write("\">\n");
+        for (int i = 0; i < attributeValues.length; i++) {
+            writer.write(INDENT + INDENT + INDENT + "<data key=\"n" + i + "\">" + attributeValues[i] + "</data>\n");
+        }
+        writer.write(INDENT + INDENT + "</node>\n");
+    }
+
+    public void edge(String source, String target, double weight) throws IOException {
+        writer.write(INDENT + INDENT + "<edge id=\"e" + edgeCount++ + "\" source=\"");
+        writeEscaped(source);
+        writer.write("\" target=\"");
+        writeEscaped(target);
+        writer.write("\">\n");
+        writer.write(INDENT + INDENT + INDENT + "<data key=\"d1\">" + weight + "</data>\n");
+        writer.write(INDENT + INDENT + "</edge>\n");
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            writer.write(INDENT + "</graph>\n");
+            writer.write("</graphml>\n");
+        } finally {
+            writer.close();
+        }
+    }
+
+    // last two segments of a fully qualified name, which is how nodes are labelled in the graph
+    static String simplify(String name) {
+        int last = name.lastIndexOf('.');
+        int previous = last > 0 ? name.lastIndexOf('.', last - 1) : -1;
+        return previous < 0 ? name : name.substring(previous + 1);
+    }
+
+    private void writeEscaped(String value) throws IOException {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '&':
+                    writer.write("&amp;");
+                    break;
+                case '<':
+                    writer.write("&lt;");
+                    break;
+                case '>':
+                    writer.write("&gt;");
+                    break;
+                case '"':
+                    writer.write("&quot;");
+                    break;
+                default:
+                    writer.write(c);
+            }
+        }
+    }
+}
@@ -0,0 +1,263 @@
+package com.arneam;
+
+import javax.imageio.ImageIO;
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Line2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.stream.IntStream;
+
+// Draws a dependency graph without a GUI: keeps the most connected nodes and the heaviest
+// edges up to the caps, lays them out with ForceLayout and writes SVG (streamed) or PNG
+// (Java2D). Graphs beyond the caps are better aggregated first, see GraphAggregation.
+// The layout is the expensive part: prepare a Drawing once to write it in both formats.
+public class GraphRenderer {
+
+    private static final int MARGIN = 20;
+
+    private int maxNodes = 5000;
+    private int maxEdges = 20000;
+    private int width = 1600;
+    private int height = 1200;
+    private int labelLimit = 300;
+    private ForceLayout layout = new ForceLayout();
+
+    // the subgraph being drawn, in local indexes, and its positions on the canvas
+    public static final class Drawing {
+        int width;
+        int height;
+        String[] names;
+        int[] degrees;
+        int[] sources;
+        int[] targets;
+        int[] weights;
+        double[] x;
+        double[] y;
+
+        double radius(int node) {
+            return Math.min(2 + Math.sqrt(degrees[node]), 12);
+        }
+
+        double strokeWidth(int edge) {
+            return 0.5 + Math.log(weights[edge]);
+        }
+
+        private Drawing() {
+        }
+    }
+
+    public GraphRenderer maxNodes(int maxNodes) {
+        this.maxNodes = maxNodes;
+        return this;
+    }
+
+    public GraphRenderer maxEdges(int maxEdges) {
+        this.maxEdges = maxEdges;
+        return this;
+    }
+
+    public GraphRenderer size(int width, int height) {
+        this.width = width;
+        this.height = height;
+        return this;
+    }
+
+    // node names are written only up to this many nodes
+    public GraphRenderer labelLimit(int labelLimit) {
+        this.labelLimit = labelLimit;
+        return this;
+    }
+
+    public GraphRenderer layout(ForceLayout layout) {
+        this.layout = layout;
+        return this;
+    }
+
+    public void writeSvg(DependencyGraph graph, Writer writer) throws IOException {
+        writeSvg(prepare(graph), writer);
+    }
+
+    public void writeSvg(Drawing d, Writer writer) throws IOException {
+        String[] names = d.names;
+        double[] x = d.x;
+        double[] y = d.y;
+        writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        writer.write("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"" + d.width + "\" height=\"" + d.height
+            + "\" viewBox=\"0 0 " + d.width + " " + d.height + "\">\n");
+        writer.write("<rect width=\"100%\" height=\"100%\" fill=\"white\"/>\n");
+
+        writer.write("<g stroke=\"#888888\" stroke-opacity=\"0.5\">\n");
+        for (int edge = 0; edge < d.sources.length; edge++) {
+            int source = d.sources[edge];
+            int target = d.targets[edge];
+            writer.write("<line x1=\"" + format(x[source]) + "\" y1=\"" + format(y[source])
+                + "\" x2=\"" + format(x[target]) + "\" y2=\"" + format(y[target])
+                + "\" stroke-width=\"" + format(d.strokeWidth(edge)) + "\"/>\n");
+        }
+        writer.write("</g>\n");
+
+        writer.write("<g fill=\"#4682b4\">\n");
+        for (int node = 0; node < names.length; node++) {
+            writer.write("<circle cx=\"" + format(x[node]) + "\" cy=\"" + format(y[node])
+                + "\" r=\"" + format(d.radius(node)) + "\"><title>" + escape(names[node]) + "</title></circle>\n");
+        }
+        writer.write("</g>\n");
+
+        if (names.length <= labelLimit) {
+            writer.write("<g font-family=\"sans-serif\" font-size=\"10\" fill=\"#333333\">\n");
+            for (int node = 0; node < names.length; node++) {
+                writer.write("<text x=\"" + format(x[node] + d.radius(node) + 2) + "\" y=\"" + format(y[node] + 3)
+                    + "\">" + escape(GraphMLWriter.simplify(names[node])) + "</text>\n");
+            }
+            writer.write("</g>\n");
+        }
+        writer.write("</svg>\n");
+        writer.flush();
+    }
+
+    public void writePng(DependencyGraph graph, OutputStream out) throws IOException {
+        writePng(prepare(graph), out);
+    }
+
+    public void writePng(Drawing d, OutputStream out) throws IOException {
+        String[] names = d.names;
+        double[] x = d.x;
+        double[] y = d.y;
+        BufferedImage image = new BufferedImage(d.width, d.height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, d.width, d.height);
+
+            g.setColor(new Color(136, 136, 136, 128));
+            for (int edge = 0; edge < d.sources.length; edge++) {
+                int source = d.sources[edge];
+                int target = d.targets[edge];
+                g.setStroke(new BasicStroke((float) d.strokeWidth(edge)));
+                g.draw(new Line2D.Double(x[source], y[source], x[target], y[target]));
+            }
+
+            g.setColor(new Color(70, 130, 180));
+            for (int node = 0; node < names.length; node++) {
+                double r = d.radius(node);
+                g.fill(new Ellipse2D.Double(x[node] - r, y[node] - r, 2 * r, 2 * r));
+            }
+
+            if (names.length <= labelLimit) {
+                g.setColor(new Color(51, 51, 51));
+                g.setFont(new Font(Font.SANS_SERIF, Font.PLAIN, 10));
+                for (int node = 0; node < names.length; node++) {
+                    g.drawString(GraphMLWriter.simplify(names[node]),
+                        (float) (x[node] + d.radius(node) + 2), (float) (y[node] + 3));
+                }
+            }
+        } finally {
+            g.dispose();
+        }
+        if (!ImageIO.write(image, "png", out)) {
+            throw new IllegalStateException("no PNG writer available");
+        }
+    }
+
+    // selects and lays out what will be drawn, at the current size
+    public Drawing prepare(DependencyGraph graph) {
+        Drawing d = new Drawing();
+        d.width = width;
+        d.height = height;
+        int[] nodes = graph.nodeIds();
+        int[] degree = new int[graph.symbols().size()];
+        graph.forEachEdge((source, target) -> {
+            degree[source]++;
+            degree[target]++;
+        });
+
+        // most connected nodes first, ties in id order so the picture is reproducible
+        int[] kept = Arrays.stream(nodes).boxed()
+            .sorted(Comparator.comparingInt((Integer node) -> -degree[node]).thenComparingInt(node -> node))
+            .limit(maxNodes)
+            .mapToInt(Integer::intValue)
+            .toArray();
+        int[] local = new int[degree.length];
+        Arrays.fill(local, -1);
+        d.names = new String[kept.length];
+        d.degrees = new int[kept.length];
+        for (int i = 0; i < kept.length; i++) {
+            local[kept[i]] = i;
+            d.names[i] = graph.name(kept[i]);
+            d.degrees[i] = degree[kept[i]];
+        }
+
+        // heaviest edges between kept nodes, then those joining the best connected nodes
+        long[] edges = new long[graph.edgeCount()];
+        int[] edgeWeights = new int[graph.edgeCount()];
+        int count = 0;
+        for (int node : kept) {
+            for (int edge = graph.start(node); edge < graph.end(node); edge++) {
+                int target = local[graph.target(edge)];
+                if (target >= 0 && target != local[node]) {
+                    edges[count] = ((long) local[node] << 32) | target;
+                    edgeWeights[count++] = graph.weight(edge);
+                }
+            }
+        }
+        long[] packed = edges;
+        int[] order = IntStream.range(0, count).boxed()
+            .sorted(Comparator.comparingInt((Integer edge) -> -edgeWeights[edge])
+                .thenComparingInt(edge -> (int) (packed[edge] >>> 32) + (int) packed[edge]))
+            .limit(maxEdges)
+            .mapToInt(Integer::intValue)
+            .toArray();
+        d.sources = new int[order.length];
+        d.targets = new int[order.length];
+        d.weights = new int[order.length];
+        for (int i = 0; i < order.length; i++) {
+            d.sources[i] = (int) (packed[order[i]] >>> 32);
+            d.targets[i] = (int) packed[order[i]];
+            d.weights[i] = edgeWeights[order[i]];
+        }
+
+        double[][] positions = layout.layout(kept.length, d.sources, d.targets);
+        d.x = positions[0];
+        d.y = positions[1];
+        fit(d.x, d.y, width, height);
+        return d;
+    }
+
+    // scales the layout into the canvas, keeping its aspect ratio
+    private static void fit(double[] x, double[] y, int width, int height) {
+        if (x.length == 0) {
+            return;
+        }
+        double minX = Arrays.stream(x).min().getAsDouble();
+        double maxX = Arrays.stream(x).max().getAsDouble();
+        double minY = Arrays.stream(y).min().getAsDouble();
+        double maxY = Arrays.stream(y).max().getAsDouble();
+        double scale = Math.min((width - 2 * MARGIN) / Math.max(maxX - minX, 1e-9),
+            (height - 2 * MARGIN) / Math.max(maxY - minY, 1e-9));
+        double offsetX = (width - (maxX - minX) * scale) / 2;
+        double offsetY = (height - (maxY - minY) * scale) / 2;
+        for (int i = 0; i < x.length; i++) {
+            x[i] = offsetX + (x[i] - minX) * scale;
+            y[i] = offsetY + (y[i] - minY) * scale;
+        }
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.1f", value);
+    }
+
+    private static String escape(String text) {
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+    }
+}
@@ -0,0 +1,319 @@
+package com.arneam;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+// Binary, memory-mapped form of a DependencyGraph. Opening a snapshot maps the file and
+// reads the header; names and adjacency are read from the mapping on demand. Snapshots are
+// written to a temporary file that is then moved over the old one, so a reader never maps
+// a half written file.
+//
+// Layout (big endian):
+//   header      magic, version, nodeCount, edgeCount, flags (ints), CRC32 (long) of the
+//               counts, flags and everything after the header
+//   nameOffsets int[nodeCount + 1], into the names block
+//   offsets     int[nodeCount + 1], CSR row starts
+//   targets     int[edgeCount]
+//   weights     int[edgeCount], only when flags has WEIGHTED
+//   names       UTF-8 bytes, sorted bytewise so that id(name) is a binary search
+public class GraphSnapshot {
+
+    private static final int MAGIC = 0x43444753;
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 28;
+    private static final int WEIGHTED = 1;
+
+    private final MappedByteBuffer buffer;
+    private final int nodeCount;
+    private final int edgeCount;
+    private final IntBuffer nameOffsets;
+    private final IntBuffer offsets;
+    private final IntBuffer targets;
+    private final IntBuffer weights;
+    private final int namesStart;
+
+    private GraphSnapshot(MappedByteBuffer buffer, int nodeCount, int edgeCount, boolean weighted) {
+        this.buffer = buffer;
+        this.nodeCount = nodeCount;
+        this.edgeCount = edgeCount;
+        this.nameOffsets = slice(HEADER_SIZE, nodeCount + 1);
+        this.offsets = slice(HEADER_SIZE + 4 * (nodeCount + 1), nodeCount + 1);
+        this.targets = slice(HEADER_SIZE + 8 * (nodeCount + 1), edgeCount);
+        this.weights = weighted ? slice(HEADER_SIZE + 8 * (nodeCount + 1) + 4 * edgeCount, edgeCount) : null;
+        this.namesStart = HEADER_SIZE + 8 * (nodeCount + 1) + 4 * (weighted ? 2 : 1) * edgeCount;
+    }
+
+    public static void write(DependencyGraph graph, Path file) {
+        int[] nodes = graph.nodeIds();
+        byte[][] names = new byte[nodes.length][];
+        Integer[] order = new Integer[nodes.length];
+        for (int i = 0; i < nodes.length; i++) {
+            names[i] = graph.name(nodes[i]).getBytes(StandardCharsets.UTF_8);
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> compare(names[a], names[b]));
+
+        // graph id -> snapshot id
+        int[] ids = new int[graph.symbols().size()];
+        for (int i = 0; i < order.length; i++) {
+            ids[nodes[order[i]]] = i;
+        }
+
+        int nodeCount = nodes.length;
+        int edgeCount = graph.edgeCount();
+        boolean weighted = graph.isWeighted();
+        ByteBuffer body = ByteBuffer.allocate(8 * (nodeCount + 1) + 4 * (weighted ? 2 : 1) * edgeCount);
+        IntBuffer ints = body.asIntBuffer();
+
+        int nameOffset = 0;
+        for (Integer index : order) {
+            ints.put(nameOffset);
+            nameOffset += names[index].length;
+        }
+        ints.put(nameOffset);
+
+        int edgeOffset = 0;
+        for (Integer index : order) {
+            ints.put(edgeOffset);
+            edgeOffset += graph.outDegree(nodes[index]);
+        }
+        ints.put(edgeOffset);
+
+        // target and weight packed in a long so rows sort by target with their weights
+        long[][] rows = new long[order.length][];
+        for (int i = 0; i < order.length; i++) {
+            int node = nodes[order[i]];
+            long[] row = new long[graph.outDegree(node)];
+            for (int edge = graph.start(node), j = 0; edge < graph.end(node); edge++, j++) {
+                row[j] = ((long) ids[graph.target(edge)] << 32) | (graph.weight(edge) & 0xFFFFFFFFL);
+            }
+            Arrays.sort(row);
+            rows[i] = row;
+            for (long packed : row) {
+                ints.put((int) (packed >>> 32));
+            }
+        }
+        if (weighted) {
+            for (long[] row : rows) {
+                for (long packed : row) {
+                    ints.put((int) packed);
+                }
+            }
+        }
+
+        ByteBuffer nameBytes = ByteBuffer.allocate(nameOffset);
+        for (Integer index : order) {
+            nameBytes.put(names[index]);
+        }
+        body.rewind();
+        nameBytes.flip();
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putInt(VERSION).putInt(nodeCount).putInt(edgeCount).putInt(weighted ? WEIGHTED : 0);
+        CRC32 crc = new CRC32();
+        crc.update(header.array(), 8, 12);
+        crc.update(body.duplicate());
+        crc.update(nameBytes.duplicate());
+        header.putLong(crc.getValue()).flip();
+
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Path temp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                ByteBuffer[] buffers = {header, body, nameBytes};
+                while (header.hasRemaining() || body.hasRemaining() || nameBytes.hasRemaining()) {
+                    channel.write(buffers);
+                }
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public static GraphSnapshot open(Path file) {
+        return open(file, true);
+    }
+
+    public static GraphSnapshot open(Path file, boolean verify) {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+
+        if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IllegalStateException("not a graph snapshot: " + file);
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IllegalStateException("unsupported graph snapshot version " + buffer.getInt(4) + ": " + file);
+        }
+        if (verify) {
+            ByteBuffer counts = buffer.duplicate();
+            counts.position(8).limit(20);
+            ByteBuffer body = buffer.duplicate();
+            body.position(HEADER_SIZE);
+            CRC32 crc = new CRC32();
+            crc.update(counts);
+            crc.update(body);
+            if (crc.getValue() != buffer.getLong(20)) {
+                throw new IllegalStateException("graph snapshot checksum mismatch: " + file);
+            }
+        }
+        return new GraphSnapshot(buffer, buffer.getInt(8), buffer.getInt(12), (buffer.getInt(16) & WEIGHTED) != 0);
+    }
+
+    public int nodeCount() {
+        return nodeCount;
+    }
+
+    public int edgeCount() {
+        return edgeCount;
+    }
+
+    public String name(int node) {
+        int start = nameOffsets.get(node);
+        byte[] bytes = new byte[nameOffsets.get(node + 1) - start];
+        ByteBuffer names = buffer.duplicate();
+        names.position(namesStart + start);
+        names.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // -1 when the name is not a node of the snapshot
+    public int id(String name) {
+        byte[] key = name.getBytes(StandardCharsets.UTF_8);
+        int low = 0;
+        int high = nodeCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int comparison = compareName(mid, key);
+            if (comparison < 0) {
+                low = mid + 1;
+            } else if (comparison > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    public int start(int node) {
+        return offsets.get(node);
+    }
+
+    public int end(int node) {
+        return offsets.get(node + 1);
+    }
+
+    public int target(int edge) {
+        return targets.get(edge);
+    }
+
+    // 1 unless the snapshot was written from a weighted graph
+    public int weight(int edge) {
+        return weights == null ? 1 : weights.get(edge);
+    }
+
+    public boolean isWeighted() {
+        return weights != null;
+    }
+
+    public int outDegree(int node) {
+        return end(node) - start(node);
+    }
+
+    public boolean hasEdge(String source, String target) {
+        int from = id(source);
+        int to = id(target);
+        if (from < 0 || to < 0) {
+            return false;
+        }
+        int low = start(from);
+        int high = end(from) - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int value = target(mid);
+            if (value < to) {
+                low = mid + 1;
+            } else if (value > to) {
+                high = mid - 1;
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public Set<String> dependenciesOf(String name) {
+        Set<String> dependencies = new HashSet<>();
+        int node = id(name);
+        if (node >= 0) {
+            for (int edge = start(node); edge < end(node); edge++) {
+                dependencies.add(name(target(edge)));
+            }
+        }
+        return dependencies;
+    }
+
+    public DependencyGraph toGraph() {
+        SymbolTable symbols = new SymbolTable();
+        for (int node = 0; node < nodeCount; node++) {
+            symbols.intern(name(node));
+        }
+        DependencyGraph.Builder builder = new DependencyGraph.Builder(symbols);
+        if (isWeighted()) {
+            builder.weighted();
+        }
+        for (int node = 0; node < nodeCount; node++) {
+            for (int edge = start(node); edge < end(node); edge++) {
+                builder.addEdge(node, target(edge), weight(edge));
+            }
+        }
+        return builder.build();
+    }
+
+    private int compareName(int node, byte[] key) {
+        int start = namesStart + nameOffsets.get(node);
+        int length = nameOffsets.get(node + 1) - nameOffsets.get(node);
+        for (int i = 0; i < Math.min(length, key.length); i++) {
+            int difference = (buffer.get(start + i) & 0xFF) - (key[i] & 0xFF);
+            if (difference != 0) {
+                return difference;
+            }
+        }
+        return length - key.length;
+    }
+
+    private static int compare(byte[] a, byte[] b) {
+        for (int i = 0; i < Math.min(a.length, b.length); i++) {
+            int difference = (a[i] & 0xFF) - (b[i] & 0xFF);
+            if (difference != 0) {
+                return difference;
+            }
+        }
+        return a.length - b.length;
+    }
+
+    private IntBuffer slice(int position, int length) {
+        ByteBuffer slice = buffer.duplicate();
+        slice.position(position);
+        slice.limit(position + 4 * length);
+        return slice.slice().asIntBuffer();
+    }
+}
@@ -0,0 +1,192 @@
+package com.arneam;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PushbackReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+// Reads the package and import declarations without building an AST, and stops
+// at the first type declaration. Names are reported the way JavaParser reports
+// them: wildcard imports without the trailing ".*", static imports with the member.
+// Type references in the body are never read, so resolution only sees the imports.
+public class HeaderImportExtractor implements ImportExtractor {
+
+    @Override
+    public SourceImports extract(File file) throws IOException {
+        try (Reader reader = new BufferedReader(
+                new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+            return extract(reader);
+        }
+    }
+
+    SourceImports extract(Reader reader) throws IOException {
+        Lexer lexer = new Lexer(reader);
+        String packageName = null;
+        List<String> imports = new ArrayList<>();
+        List<String> wildcardImports = new ArrayList<>();
+
+        String token;
+        while ((token = lexer.next()) != null) {
+            if (token.equals(";")) {
+                continue;
+            }
+            if (token.equals("@")) {
+                if (lexer.skipAnnotation()) {
+                    continue;
+                }
+                break;
+            }
+            if (token.equals("package")) {
+                packageName = lexer.qualifiedName(false);
+            } else if (token.equals("import")) {
+                boolean isStatic = "static".equals(lexer.peek());
+                if (isStatic) {
+                    lexer.next();
+                }
+                String name = lexer.qualifiedName(true);
+                imports.add(name);
+                if (lexer.wildcard && !isStatic) {
+                    wildcardImports.add(name);
+                }
+            } else {
+                break;
+            }
+        }
+
+        return new SourceImports(packageName, imports, wildcardImports, new ArrayList<>());
+    }
+
+    private static final class Lexer {
+
+        private static final char BYTE_ORDER_MARK = '\uFEFF';
+
+        private final PushbackReader reader;
+        private String peeked;
+        // whether the last qualified name ended in ".*"
+        boolean wildcard;
+
+        Lexer(Reader reader) {
+            this.reader = new PushbackReader(reader);
+        }
+
+        String peek() throws IOException {
+            if (peeked == null) {
+                peeked = read();
+            }
+            return peeked;
+        }
+
+        String next() throws IOException {
+            String token = peek();
+            peeked = null;
+            return token;
+        }
+
+        String qualifiedName(boolean allowWildcard) throws IOException {
+            StringBuilder name = new StringBuilder(next());
+            wildcard = false;
+            while (".".equals(peek())) {
+                next();
+                String segment = next();
+                if (allowWildcard && "*".equals(segment)) {
+                    wildcard = true;
+                    break;
+                }
+                name.append('.').append(segment);
+            }
+            return name.toString();
+        }
+
+        // returns false when the '@' starts an annotation type declaration
+        boolean skipAnnotation() throws IOException {
+            if ("interface".equals(peek())) {
+                return false;
+            }
+            qualifiedName(false);
+            if ("(".equals(peek())) {
+                int depth = 0;
+                String token;
+                while ((token = next()) != null) {
+                    if (token.equals("(")) {
+                        depth++;
+                    } else if (token.equals(")") && --depth == 0) {
+                        break;
+                    }
+                }
+            }
+            return true;
+        }
+
+        private String read() throws IOException {
+            int c;
+            while ((c = reader.read()) != -1) {
+                if (Character.isWhitespace(c) || c == BYTE_ORDER_MARK) {
+                    continue;
+                }
+                if (c == '/') {
+                    int d = reader.read();
+                    if (d == '/') {
+                        skipLineComment();
+                        continue;
+                    }
+                    if (d == '*') {
+                        skipBlockComment();
+                        continue;
+                    }
+                    if (d != -1) {
+                        reader.unread(d);
+                    }
+                    return "/";
+                }
+                if (c == '"' || c == '\'') {
+                    skipLiteral(c);
+                    return String.valueOf((char) c);
+                }
+                if (Character.isJavaIdentifierPart(c)) {
+                    StringBuilder identifier = new StringBuilder().append((char) c);
+                    while ((c = reader.read()) != -1 && Character.isJavaIdentifierPart(c)) {
+                        identifier.append((char) c);
+                    }
+                    if (c != -1) {
+                        reader.unread(c);
+                    }
+                    return identifier.toString();
+                }
+                return String.valueOf((char) c);
+            }
+            return null;
+        }
+
+        private void skipLineComment() throws IOException {
+            int c;
+            while ((c = reader.read()) != -1 && c != '\n' && c != '\r') {
+            }
+        }
+
+        private void skipBlockComment() throws IOException {
+            int previous = 0;
+            int c;
+            while ((c = reader.read()) != -1) {
+                if (previous == '*' && c == '/') {
+                    return;
+                }
+                previous = c;
+            }
+        }
+
+        private void skipLiteral(int quote) throws IOException {
+            int c;
+            while ((c = reader.read()) != -1 && c != quote) {
+                if (c == '\\') {
+                    reader.read();
+                }
+            }
+        }
+    }
+}
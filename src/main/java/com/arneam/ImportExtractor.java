@@ -0,0 +1,15 @@
+package com.arneam;
+
+import java.io.File;
+import java.io.IOException;
+
+public interface ImportExtractor {
+
+    SourceImports extract(File file) throws IOException;
+
+    // tells the results of different extractors apart in a ScanCache: a header-only
+    // extractor finds no references, so its entries must not stand in for a full parse
+    default String engine() {
+        return getClass().getName();
+    }
+}
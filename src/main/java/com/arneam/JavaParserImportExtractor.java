@@ -0,0 +1,83 @@
+package com.arneam;
+
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.ImportDeclaration;
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.expr.AnnotationExpr;
+import com.github.javaparser.ast.expr.FieldAccessExpr;
+import com.github.javaparser.ast.expr.MethodCallExpr;
+import com.github.javaparser.ast.expr.NameExpr;
+import com.github.javaparser.ast.type.ClassOrInterfaceType;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+public class JavaParserImportExtractor implements ImportExtractor {
+
+    @Override
+    public SourceImports extract(File file) throws IOException {
+        CompilationUnit unit = JavaParser.parse(file);
+
+        String packageName = unit.getPackageDeclaration()
+            .map(pkg -> pkg.getName().toString())
+            .orElse(null);
+        List<String> imports = unit.getImports().stream()
+            .map(it -> it.getNameAsString())
+            .collect(Collectors.toList());
+        List<String> wildcardImports = unit.getImports().stream()
+            .filter(it -> it.isAsterisk() && !it.isStatic())
+            .map(ImportDeclaration::getNameAsString)
+            .collect(Collectors.toList());
+
+        return new SourceImports(packageName, imports, wildcardImports, references(unit));
+    }
+
+    // types as written in declarations, annotations and as the scope of static member access
+    private List<String> references(CompilationUnit unit) {
+        Set<String> references = new LinkedHashSet<>();
+        for (ClassOrInterfaceType type : unit.getNodesByType(ClassOrInterfaceType.class)) {
+            if (!isScope(type)) {
+                references.add(qualifiedName(type));
+            }
+        }
+        for (AnnotationExpr annotation : unit.getNodesByType(AnnotationExpr.class)) {
+            references.add(annotation.getName().toString());
+        }
+        for (NameExpr name : unit.getNodesByType(NameExpr.class)) {
+            String identifier = name.getName().getIdentifier();
+            if (Character.isUpperCase(identifier.charAt(0)) && isScope(name)) {
+                references.add(identifier);
+            }
+        }
+        return new ArrayList<>(references);
+    }
+
+    // the "a.b" of a type written "a.b.C" is not a reference of its own
+    private boolean isScope(ClassOrInterfaceType type) {
+        Node parent = type.getParentNode().orElse(null);
+        return parent instanceof ClassOrInterfaceType
+            && ((ClassOrInterfaceType) parent).getScope().filter(scope -> scope == type).isPresent();
+    }
+
+    private boolean isScope(NameExpr name) {
+        Node parent = name.getParentNode().orElse(null);
+        if (parent instanceof MethodCallExpr) {
+            return ((MethodCallExpr) parent).getScope().filter(scope -> scope == name).isPresent();
+        }
+        if (parent instanceof FieldAccessExpr) {
+            return ((FieldAccessExpr) parent).getScope().filter(scope -> scope == name).isPresent();
+        }
+        return false;
+    }
+
+    private String qualifiedName(ClassOrInterfaceType type) {
+        String name = type.getName().getIdentifier();
+        return type.getScope().map(scope -> qualifiedName(scope) + "." + name).orElse(name);
+    }
+}
@@ -0,0 +1,338 @@
+package com.arneam;
+
+import java.io.File;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+// Scans the given source roots once and writes every requested filter in every requested
+// format, so a batch of graphs costs one JVM start and one parse.
+public class Main {
+
+    static final String USAGE = String.join("\n",
+        "usage: java -jar code-dependency-graph.jar [options] <source root>...",
+        "  -o, --out <dir>              output directory (default .)",
+        "  -f, --format <list>          csv,graphml,dot,bin,svg,png (default graphml)",
+        "  -r, --regex [<name>=]<regex> dependencies to keep, repeatable (default .*)",
+        "  -i, --include <glob>         only scan files matching the glob, repeatable",
+        "  -x, --exclude <glob>         skip files matching the glob, repeatable",
+        "  -p, --parallelism <n>        parser threads (default: available processors)",
+        "  --engine <javaparser|header> import extractor (default javaparser)",
+        "  --cache <file>               reuse parse results between runs",
+        "  --timeout <ms>               give up on a single file after this long",
+        "  --resolve                    resolve same-package, wildcard and qualified type references",
+        "  --type-index <file>          resolve against this index and save it updated (implies --resolve)",
+        "  --max-nodes <n>              most connected nodes drawn in svg/png (default 5000)",
+        "  --max-edges <n>              heaviest edges drawn in svg/png (default 20000)",
+        "  --baseline <dir>             diff each filter against <dir>/<name>.bin into <name>-diff.json",
+        "  --fail-on-diff               exit with 3 when a diff adds edges or cycles",
+        "  --metrics <file>             write scan metrics as JSON",
+        "");
+
+    private static final String DEFAULT_NAME = "dependencies";
+
+    enum Format {
+        CSV, GRAPHML, DOT, BIN, SVG, PNG
+    }
+
+    public static void main(String[] args) {
+        System.exit(run(args, System.out, System.err));
+    }
+
+    static int run(String[] args, PrintStream out, PrintStream err) {
+        List<File> roots = new ArrayList<>();
+        List<String> includes = new ArrayList<>();
+        List<String> excludes = new ArrayList<>();
+        List<String> regexes = new ArrayList<>();
+        List<Format> formats = new ArrayList<>();
+        Path outputDir = Paths.get(".");
+        int parallelism = Runtime.getRuntime().availableProcessors();
+        ImportExtractor extractor = new JavaParserImportExtractor();
+        Path cacheFile = null;
+        long timeoutMillis = 0;
+        Path metricsFile = null;
+        boolean resolve = false;
+        Path typeIndexFile = null;
+        GraphRenderer renderer = new GraphRenderer();
+        Path baselineDir = null;
+        boolean failOnDiff = false;
+        Map<String, String> filters = new LinkedHashMap<>();
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                String arg = args[i];
+                switch (arg) {
+                    case "-h":
+                    case "--help":
+                        out.print(USAGE);
+                        return 0;
+                    case "-o":
+                    case "--out":
+                        outputDir = Paths.get(value(args, ++i, arg));
+                        break;
+                    case "-f":
+                    case "--format":
+                        for (String format : value(args, ++i, arg).split(",")) {
+                            formats.add(Format.valueOf(format.trim().toUpperCase()));
+                        }
+                        break;
+                    case "-r":
+                    case "--regex":
+                        regexes.add(value(args, ++i, arg));
+                        break;
+                    case "-i":
+                    case "--include":
+                        includes.add(value(args, ++i, arg));
+                        break;
+                    case "-x":
+                    case "--exclude":
+                        excludes.add(value(args, ++i, arg));
+                        break;
+                    case "-p":
+                    case "--parallelism":
+                        parallelism = number(args, ++i, arg, 1);
+                        break;
+                    case "--engine":
+                        extractor = extractor(value(args, ++i, arg));
+                        break;
+                    case "--cache":
+                        cacheFile = Paths.get(value(args, ++i, arg));
+                        break;
+                    case "--timeout":
+                        timeoutMillis = Long.parseLong(value(args, ++i, arg));
+                        break;
+                    case "--resolve":
+                        resolve = true;
+                        break;
+                    case "--type-index":
+                        typeIndexFile = Paths.get(value(args, ++i, arg));
+                        resolve = true;
+                        break;
+                    case "--max-nodes":
+                        renderer.maxNodes(number(args, ++i, arg, 0));
+                        break;
+                    case "--max-edges":
+                        renderer.maxEdges(number(args, ++i, arg, 0));
+                        break;
+                    case "--baseline":
+                        baselineDir = Paths.get(value(args, ++i, arg));
+                        break;
+                    case "--fail-on-diff":
+                        failOnDiff = true;
+                        break;
+                    case "--metrics":
+                        metricsFile = Paths.get(value(args, ++i, arg));
+                        break;
+                    default:
+                        if (arg.startsWith("-")) {
+                            throw new IllegalArgumentException("unknown option " + arg);
+                        }
+                        File root = new File(arg);
+                        if (!root.isDirectory()) {
+                            throw new IllegalArgumentException("not a directory: " + arg);
+                        }
+                        roots.add(root);
+                }
+            }
+            if (roots.isEmpty()) {
+                throw new IllegalArgumentException("no source root given");
+            }
+            if (regexes.isEmpty()) {
+                regexes.add(".*");
+            }
+            for (int i = 0; i < regexes.size(); i++) {
+                String defaultName = regexes.size() == 1 ? DEFAULT_NAME : DEFAULT_NAME + "-" + (i + 1);
+                String[] named = named(regexes.get(i), defaultName);
+                // a PatternSyntaxException is an IllegalArgumentException: rejected before the scan
+                Pattern.compile(named[1]);
+                if (filters.put(named[0], named[1]) != null) {
+                    throw new IllegalArgumentException("duplicate filter name " + named[0]);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            err.println(e.getMessage());
+            err.print(USAGE);
+            return 2;
+        }
+
+        if (formats.isEmpty()) {
+            formats.add(Format.GRAPHML);
+        }
+
+        ClassDependencies classDependencies = new ClassDependencies(roots.get(0))
+            .includeFiles(includes.toArray(new String[0]))
+            .excludeFiles(excludes.toArray(new String[0]))
+            .parallelism(parallelism)
+            .using(extractor);
+        roots.stream().skip(1).forEach(classDependencies::root);
+        // with a warm cache the diff compares only the rows of files parsed again or gone;
+        // resolving types can change the rows of unchanged files, so then all rows are compared
+        boolean changedRowsOnly = false;
+        if (cacheFile != null) {
+            ScanCache cache = new ScanCache(cacheFile);
+            classDependencies.cache(cache);
+            changedRowsOnly = cache.size() > 0 && !resolve;
+        }
+        if (timeoutMillis > 0) {
+            classDependencies.timeout(timeoutMillis, TimeUnit.MILLISECONDS);
+        }
+        if (resolve) {
+            classDependencies.resolveTypes(typeIndexFile == null ? new TypeIndex() : TypeIndex.load(typeIndexFile));
+        }
+
+        Map<String, DependencyGraph> graphs = new LinkedHashMap<>();
+        filters.forEach((name, regex) -> graphs.put(name, classDependencies.graphWith(regex)));
+        for (ScanFailure failure : classDependencies.failures()) {
+            err.println("skipped " + failure);
+        }
+
+        boolean regressions = false;
+        try {
+            Files.createDirectories(outputDir);
+            // before writing, the baseline may live in the output directory
+            if (baselineDir != null) {
+                regressions = diff(graphs, changedRowsOnly ? classDependencies.changedClasses() : null,
+                    baselineDir, outputDir, out);
+            }
+            renderer.layout(new ForceLayout().parallelism(parallelism));
+            write(classDependencies, graphs, formats, outputDir, renderer, parallelism);
+        } catch (Exception e) {
+            err.println("could not write outputs: " + e.getMessage());
+            return 1;
+        }
+
+        if (typeIndexFile != null) {
+            classDependencies.typeIndex().save(typeIndexFile);
+        }
+        if (metricsFile != null) {
+            classDependencies.metrics().writeJson(metricsFile);
+        }
+        out.println(graphs.size() * formats.size() + " graph(s) written to " + outputDir);
+        return failOnDiff && regressions ? 3 : 0;
+    }
+
+    // changedClasses null compares every row
+    private static boolean diff(Map<String, DependencyGraph> graphs, Set<String> changedClasses, Path baselineDir,
+                                Path outputDir, PrintStream out) {
+        boolean regressions = false;
+        for (Map.Entry<String, DependencyGraph> graph : graphs.entrySet()) {
+            Path baseline = baselineDir.resolve(graph.getKey() + ".bin");
+            if (!Files.isRegularFile(baseline)) {
+                out.println(graph.getKey() + ": no baseline " + baseline);
+                continue;
+            }
+            GraphSnapshot snapshot = GraphSnapshot.open(baseline);
+            GraphDiff diff = changedClasses == null
+                ? GraphDiff.between(snapshot, graph.getValue())
+                : GraphDiff.between(snapshot, graph.getValue(), changedClasses);
+            diff.writeJson(outputDir.resolve(graph.getKey() + "-diff.json"));
+            out.println(graph.getKey() + ": " + diff);
+            regressions |= diff.hasRegressions();
+        }
+        return regressions;
+    }
+
+    private static void write(ClassDependencies classDependencies, Map<String, DependencyGraph> graphs,
+                              List<Format> formats, Path outputDir, GraphRenderer renderer, int parallelism)
+            throws Exception {
+        // each graph is laid out once for svg and png; layouts use all threads themselves, so
+        // they run one after another here instead of inside the writer threads
+        Map<String, GraphRenderer.Drawing> drawings = new HashMap<>();
+        if (formats.contains(Format.SVG) || formats.contains(Format.PNG)) {
+            graphs.forEach((name, graph) -> drawings.put(name,
+                classDependencies.metrics().time(ScanMetrics.Stage.EXPORT, () -> renderer.prepare(graph))));
+        }
+
+        ExecutorService writers = Executors.newFixedThreadPool(
+            Math.max(1, Math.min(parallelism, graphs.size() * formats.size())));
+        try {
+            List<Future<?>> written = new ArrayList<>();
+            graphs.forEach((name, graph) -> formats.forEach(format -> written.add(writers.submit(() ->
+                write(classDependencies, graph, drawings.get(name), format, outputDir.resolve(name), renderer)))));
+            for (Future<?> future : written) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+                }
+            }
+        } finally {
+            writers.shutdown();
+        }
+    }
+
+    private static void write(ClassDependencies classDependencies, DependencyGraph graph,
+                              GraphRenderer.Drawing drawing, Format format, Path base, GraphRenderer renderer) {
+        switch (format) {
+            case CSV:
+                classDependencies.writeNodesIntoCSVFile(graph.nodeNames(), "\n", base + "-nodes.csv");
+                classDependencies.writeEdgesIntoCSVFile(graph.edgePairs(), ";", "\n", base + "-edges.csv");
+                break;
+            case GRAPHML:
+                classDependencies.export(graph, new GraphMLExporter(), base + ".graphml");
+                break;
+            case DOT:
+                classDependencies.export(graph, new DotExporter(), base + ".dot");
+                break;
+            case BIN:
+                GraphSnapshot.write(graph, Paths.get(base + ".bin"));
+                break;
+            case SVG:
+                classDependencies.writeSvgFile(drawing, renderer, base + ".svg");
+                break;
+            case PNG:
+                classDependencies.writePngFile(drawing, renderer, base + ".png");
+                break;
+        }
+    }
+
+    // "dao=.*Dao" names the output files after the filter, a bare regex gets a default name
+    static String[] named(String regex, String defaultName) {
+        int separator = regex.indexOf('=');
+        if (separator > 0 && regex.substring(0, separator).matches("[\\w.-]+")) {
+            return new String[]{regex.substring(0, separator), regex.substring(separator + 1)};
+        }
+        return new String[]{defaultName, regex};
+    }
+
+    private static ImportExtractor extractor(String engine) {
+        switch (engine) {
+            case "javaparser":
+                return new JavaParserImportExtractor();
+            case "header":
+                return new HeaderImportExtractor();
+            default:
+                throw new IllegalArgumentException("unknown engine " + engine + ", expected one of "
+                    + Arrays.asList("javaparser", "header"));
+        }
+    }
+
+    private static String value(String[] args, int index, String option) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException("missing value for " + option);
+        }
+        return args[index];
+    }
+
+    private static int number(String[] args, int index, String option, int min) {
+        int number = Integer.parseInt(value(args, index, option));
+        if (number < min) {
+            throw new IllegalArgumentException(option + " must be at least " + min + ", got " + number);
+        }
+        return number;
+    }
+}
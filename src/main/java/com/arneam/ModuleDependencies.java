@@ -0,0 +1,326 @@
+package com.arneam;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32;
+
+// Scans a Maven or Gradle build module by module. Every directory holding a pom.xml or
+// build.gradle(.kts) is a module whose conventional source roots are scanned on their
+// own, so build output and other modules' sources never mix in. Modules are scanned in
+// parallel, one ClassDependencies each.
+//
+// With a cache directory, each module keeps its parse cache, its graph (as a snapshot)
+// and the fingerprint of its source files there; a module whose fingerprint did not
+// change since the last run is not scanned at all.
+public class ModuleDependencies {
+
+    public static final Set<String> BUILD_FILES =
+        Collections.unmodifiableSet(new HashSet<>(Arrays.asList("pom.xml", "build.gradle", "build.gradle.kts")));
+
+    // never descended into when looking for modules
+    public static final Set<String> SKIPPED_DIRECTORIES = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+        "target", "build", "out", "node_modules", "src", ".git", ".svn", ".hg", ".gradle", ".idea")));
+
+    public static class Module {
+
+        private final String name;
+        private final Path directory;
+        private final List<Path> sourceRoots;
+
+        Module(String name, Path directory, List<Path> sourceRoots) {
+            this.name = name;
+            this.directory = directory;
+            this.sourceRoots = sourceRoots;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Path getDirectory() {
+            return directory;
+        }
+
+        public List<Path> getSourceRoots() {
+            return sourceRoots;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    private static class ModuleScan {
+
+        final long fingerprint;
+        final DependencyGraph imports;
+        final Set<String> classes;
+
+        ModuleScan(long fingerprint, DependencyGraph imports, Set<String> classes) {
+            this.fingerprint = fingerprint;
+            this.imports = imports;
+            this.classes = classes;
+        }
+    }
+
+    private final Path projectDir;
+    private int parallelism = 1;
+    private boolean includeTests;
+    private Path cacheDir;
+    private ImportExtractor extractor = new JavaParserImportExtractor();
+    private ScanMetrics metrics = new ScanMetrics();
+    private final Map<String, ModuleScan> scans = new ConcurrentHashMap<>();
+    private final Set<String> skipped = ConcurrentHashMap.newKeySet();
+    private List<Module> modules;
+    private volatile DependencyGraph imports = DependencyGraph.empty();
+    private volatile DependencyGraph dependencies = DependencyGraph.empty();
+    private volatile Map<String, String> moduleOf = Collections.emptyMap();
+
+    public ModuleDependencies(File projectDir) {
+        this.projectDir = projectDir.toPath().toAbsolutePath().normalize();
+    }
+
+    // number of modules scanned at the same time
+    public ModuleDependencies parallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be at least 1: " + parallelism);
+        }
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    public ModuleDependencies includeTests(boolean includeTests) {
+        this.includeTests = includeTests;
+        return this;
+    }
+
+    public ModuleDependencies cacheDir(Path cacheDir) {
+        this.cacheDir = cacheDir;
+        return this;
+    }
+
+    public ModuleDependencies using(ImportExtractor extractor) {
+        this.extractor = extractor;
+        return this;
+    }
+
+    public ModuleDependencies metrics(ScanMetrics metrics) {
+        this.metrics = metrics;
+        return this;
+    }
+
+    public ScanMetrics metrics() {
+        return metrics;
+    }
+
+    public synchronized List<Module> modules() {
+        if (modules == null) {
+            modules = discover();
+        }
+        return modules;
+    }
+
+    public ModuleDependencies all() {
+        return allWith(".*");
+    }
+
+    public synchronized ModuleDependencies allWith(String regex) {
+        scan();
+        Pattern pattern = Pattern.compile(regex);
+        dependencies = metrics.time(ScanMetrics.Stage.FILTER, () -> imports.filter(it -> pattern.matcher(it).matches()));
+        return this;
+    }
+
+    public DependencyGraph graph() {
+        return dependencies;
+    }
+
+    public Map<String, Set<String>> data() {
+        return dependencies.toMap();
+    }
+
+    // declaring module of each class found in the sources
+    public Map<String, String> moduleOf() {
+        return moduleOf;
+    }
+
+    // weighted module -> module edges; imports of classes outside the build are left out
+    public DependencyGraph moduleGraph() {
+        Set<String> names = modules().stream().map(Module::getName).collect(Collectors.toSet());
+        return GraphAggregation.byModule(moduleOf).aggregate(dependencies).filter(names::contains);
+    }
+
+    // modules whose sources did not change since their last scan
+    public Set<String> skippedModules() {
+        return new HashSet<>(skipped);
+    }
+
+    private void scan() {
+        List<Module> modules = modules();
+        skipped.clear();
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.submit(() -> modules.parallelStream().forEach(this::scan)).get();
+        } catch (InterruptedException | ExecutionException e) {
+            throw new RuntimeException(e);
+        } finally {
+            pool.shutdown();
+        }
+
+        DependencyGraph.Builder builder = new DependencyGraph.Builder();
+        Map<String, String> classes = new HashMap<>();
+        for (Module module : modules) {
+            ModuleScan scan = scans.get(module.getName());
+            scan.imports.forEachEdge((source, target) ->
+                builder.addEdge(scan.imports.name(source), scan.imports.name(target)));
+            scan.classes.forEach(className -> classes.putIfAbsent(className, module.getName()));
+        }
+        imports = builder.build();
+        moduleOf = Collections.unmodifiableMap(classes);
+    }
+
+    private void scan(Module module) {
+        long fingerprint = metrics.time(ScanMetrics.Stage.WALK, () -> fingerprint(module));
+        ModuleScan previous = scans.get(module.getName());
+        if (previous == null) {
+            previous = loadScan(module);
+        }
+        if (previous != null && previous.fingerprint == fingerprint) {
+            scans.put(module.getName(), previous);
+            skipped.add(module.getName());
+            return;
+        }
+
+        ClassDependencies classDependencies = new ClassDependencies(module.getSourceRoots().get(0).toFile())
+            .using(extractor)
+            .metrics(metrics);
+        module.getSourceRoots().stream().skip(1).forEach(root -> classDependencies.root(root.toFile()));
+        if (cacheDir != null) {
+            classDependencies.cache(new ScanCache(cacheFile(module, ".cache")));
+        }
+
+        ModuleScan scan = new ModuleScan(fingerprint, classDependencies.graphWith(".*"),
+            classDependencies.getDeclaredClasses());
+        scans.put(module.getName(), scan);
+        saveScan(module, scan);
+    }
+
+    private List<Module> discover() {
+        List<Module> found = new ArrayList<>();
+        try {
+            Files.walkFileTree(projectDir, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                    if (!dir.equals(projectDir) && SKIPPED_DIRECTORIES.contains(dir.getFileName().toString())) {
+                        return FileVisitResult.SKIP_SUBTREE;
+                    }
+                    if (BUILD_FILES.stream().anyMatch(name -> Files.isRegularFile(dir.resolve(name)))) {
+                        List<Path> sourceRoots = new ArrayList<>();
+                        sourceRoots.add(dir.resolve("src/main/java"));
+                        if (includeTests) {
+                            sourceRoots.add(dir.resolve("src/test/java"));
+                        }
+                        found.add(new Module(moduleName(dir), dir, sourceRoots));
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException e) {
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return found;
+    }
+
+    // path relative to the project, the root module goes by the project directory name
+    private String moduleName(Path dir) {
+        Path relative = projectDir.relativize(dir);
+        String name = relative.toString().replace(File.separatorChar, '/');
+        return name.isEmpty() ? String.valueOf(projectDir.getFileName()) : name;
+    }
+
+    // CRC32 over the path, size and modification time of every source file of the module
+    private long fingerprint(Module module) {
+        CRC32 crc = new CRC32();
+        for (Path root : module.getSourceRoots()) {
+            List<Path> files = new DirWalker(root).filter(path -> path.toString().endsWith(".java")).files();
+            Collections.sort(files);
+            for (Path file : files) {
+                try {
+                    BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                    crc.update((file + ":" + attributes.size() + ":" + attributes.lastModifiedTime().toMillis() + "\n")
+                        .getBytes(StandardCharsets.UTF_8));
+                } catch (IOException e) {
+                    crc.update((file + ":unreadable\n").getBytes(StandardCharsets.UTF_8));
+                }
+            }
+        }
+        return crc.getValue();
+    }
+
+    private Path cacheFile(Module module, String extension) {
+        return cacheDir.resolve(module.getName().replaceAll("[^\\w.-]", "_") + extension);
+    }
+
+    // <module>.classes holds the fingerprint followed by the declared classes, <module>.bin the graph
+    private ModuleScan loadScan(Module module) {
+        if (cacheDir == null) {
+            return null;
+        }
+        Path classesFile = cacheFile(module, ".classes");
+        Path graphFile = cacheFile(module, ".bin");
+        if (!Files.isRegularFile(classesFile) || !Files.isRegularFile(graphFile)) {
+            return null;
+        }
+        try {
+            List<String> lines = Files.readAllLines(classesFile, StandardCharsets.UTF_8);
+            long fingerprint = Long.parseLong(lines.get(0));
+            DependencyGraph imports = GraphSnapshot.open(graphFile, true).toGraph();
+            return new ModuleScan(fingerprint, imports, new HashSet<>(lines.subList(1, lines.size())));
+        } catch (IOException | RuntimeException e) {
+            // unreadable or corrupt: scan the module again
+            return null;
+        }
+    }
+
+    private void saveScan(Module module, ModuleScan scan) {
+        if (cacheDir == null) {
+            return;
+        }
+        try {
+            Files.createDirectories(cacheDir);
+            GraphSnapshot.write(scan.imports, cacheFile(module, ".bin"));
+            List<String> lines = new ArrayList<>();
+            lines.add(Long.toString(scan.fingerprint));
+            lines.addAll(scan.classes);
+            Files.write(cacheFile(module, ".classes"), lines, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package com.arneam;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+
+// Per-file package and import results kept between runs. A file is parsed again only
+// when its size or modification time (or content hash, when enabled) changed, or when
+// its entry was written by another extractor (see ImportExtractor.engine()); entries of
+// files not seen during a scan are dropped on save.
+//
+// Layout: magic, version, hash flag, string table (paths, engines, packages, imports and
+// references stored once), then one record per file referencing the table by index:
+// engine, imports, wildcard imports and references each as a count followed by indexes.
+// Counts and indexes are varints.
+public class ScanCache {
+
+    private static final int MAGIC = 0x43444743;
+    private static final int VERSION = 3;
+
+    private final Path file;
+    private final boolean hashContents;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Set<String> seen = ConcurrentHashMap.newKeySet();
+    private final Set<String> misses = ConcurrentHashMap.newKeySet();
+    private final Map<String, SourceImports> replaced = new ConcurrentHashMap<>();
+
+    public ScanCache(Path file) {
+        this(file, false);
+    }
+
+    public ScanCache(Path file, boolean hashContents) {
+        this.file = file;
+        this.hashContents = hashContents;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public ScanCache load() {
+        entries.clear();
+        seen.clear();
+        misses.clear();
+        replaced.clear();
+        if (!Files.isRegularFile(file)) {
+            return this;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION || in.readBoolean() != hashContents) {
+                return this;
+            }
+            String[] strings = new String[readVarInt(in)];
+            for (int i = 0; i < strings.length; i++) {
+                strings[i] = in.readUTF();
+            }
+            int count = readVarInt(in);
+            for (int i = 0; i < count; i++) {
+                String path = strings[readVarInt(in)];
+                long modified = in.readLong();
+                long size = in.readLong();
+                long hash = in.readLong();
+                String engine = strings[readVarInt(in)];
+                int packageIndex = readVarInt(in);
+                List<String> imports = readStrings(in, strings);
+                List<String> wildcardImports = readStrings(in, strings);
+                List<String> references = readStrings(in, strings);
+                String packageName = packageIndex == 0 ? null : strings[packageIndex - 1];
+                entries.put(path, new Entry(modified, size, hash, engine,
+                    new SourceImports(packageName, imports, wildcardImports, references)));
+            }
+        } catch (IOException | RuntimeException e) {
+            // a truncated or foreign file is as good as no cache
+            entries.clear();
+        }
+        return this;
+    }
+
+    public void save() {
+        entries.keySet().retainAll(seen);
+        seen.clear();
+        misses.clear();
+        replaced.clear();
+
+        Map<String, Integer> ids = new HashMap<>();
+        List<String> strings = new ArrayList<>();
+        entries.forEach((path, entry) -> {
+            intern(path, ids, strings);
+            intern(entry.engine, ids, strings);
+            if (entry.sourceImports.getPackageName() != null) {
+                intern(entry.sourceImports.getPackageName(), ids, strings);
+            }
+            entry.sourceImports.getImports().forEach(it -> intern(it, ids, strings));
+            entry.sourceImports.getWildcardImports().forEach(it -> intern(it, ids, strings));
+            entry.sourceImports.getReferences().forEach(it -> intern(it, ids, strings));
+        });
+
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Path temp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeBoolean(hashContents);
+                writeVarInt(out, strings.size());
+                for (String string : strings) {
+                    out.writeUTF(string);
+                }
+                writeVarInt(out, entries.size());
+                for (Map.Entry<String, Entry> it : entries.entrySet()) {
+                    Entry entry = it.getValue();
+                    String packageName = entry.sourceImports.getPackageName();
+                    writeVarInt(out, ids.get(it.getKey()));
+                    out.writeLong(entry.modified);
+                    out.writeLong(entry.size);
+                    out.writeLong(entry.hash);
+                    writeVarInt(out, ids.get(entry.engine));
+                    writeVarInt(out, packageName == null ? 0 : ids.get(packageName) + 1);
+                    writeStrings(out, entry.sourceImports.getImports(), ids);
+                    writeStrings(out, entry.sourceImports.getWildcardImports(), ids);
+                    writeStrings(out, entry.sourceImports.getReferences(), ids);
+                }
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public SourceImports extract(File source, ImportExtractor extractor) throws IOException {
+        String path = source.getAbsolutePath();
+        BasicFileAttributes attributes = Files.readAttributes(source.toPath(), BasicFileAttributes.class);
+        long modified = attributes.lastModifiedTime().toMillis();
+        long size = attributes.size();
+        long hash = hashContents ? hash(source.toPath()) : 0L;
+        seen.add(path);
+
+        String engine = extractor.engine();
+        Entry entry = entries.get(path);
+        if (entry != null && entry.size == size && entry.engine.equals(engine)
+                && (hashContents ? entry.hash == hash : entry.modified == modified)) {
+            return entry.sourceImports;
+        }
+
+        if (entry != null) {
+            replaced.put(path, entry.sourceImports);
+        }
+        SourceImports sourceImports = extractor.extract(source);
+        entries.put(path, new Entry(modified, size, hash, engine, sourceImports));
+        misses.add(path);
+        return sourceImports;
+    }
+
+    // Since load(), the files parsed again because their entry was missing, stale or from
+    // another engine. Call before save(), which starts over.
+    public Set<File> misses() {
+        Set<File> files = new HashSet<>();
+        misses.forEach(path -> files.add(new File(path)));
+        return files;
+    }
+
+    // Since load(), the saved results that no longer hold: those of files parsed again
+    // and of files not seen at all, e.g. deleted ones. Call before save().
+    public Map<File, SourceImports> staleResults() {
+        Map<File, SourceImports> stale = new HashMap<>();
+        replaced.forEach((path, sourceImports) -> stale.put(new File(path), sourceImports));
+        entries.forEach((path, entry) -> {
+            if (!seen.contains(path)) {
+                stale.put(new File(path), entry.sourceImports);
+            }
+        });
+        return stale;
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private static long hash(Path path) throws IOException {
+        CRC32 crc = new CRC32();
+        byte[] buffer = new byte[8192];
+        try (InputStream in = Files.newInputStream(path)) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                crc.update(buffer, 0, read);
+            }
+        }
+        return crc.getValue();
+    }
+
+    private static void intern(String string, Map<String, Integer> ids, List<String> strings) {
+        if (!ids.containsKey(string)) {
+            ids.put(string, strings.size());
+            strings.add(string);
+        }
+    }
+
+    private static void writeStrings(DataOutputStream out, List<String> items, Map<String, Integer> ids)
+            throws IOException {
+        writeVarInt(out, items.size());
+        for (String item : items) {
+            writeVarInt(out, ids.get(item));
+        }
+    }
+
+    private static List<String> readStrings(DataInputStream in, String[] strings) throws IOException {
+        List<String> items = new ArrayList<>();
+        for (int count = readVarInt(in); count > 0; count--) {
+            items.add(strings[readVarInt(in)]);
+        }
+        return items;
+    }
+
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarInt(DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = in.readByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+    }
+
+    private static final class Entry {
+        final long modified;
+        final long size;
+        final long hash;
+        final String engine;
+        final SourceImports sourceImports;
+
+        Entry(long modified, long size, long hash, String engine, SourceImports sourceImports) {
+            this.modified = modified;
+            this.size = size;
+            this.hash = hash;
+            this.engine = engine;
+            this.sourceImports = sourceImports;
+        }
+    }
+}
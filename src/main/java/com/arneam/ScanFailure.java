@@ -0,0 +1,44 @@
+package com.arneam;
+
+import java.io.File;
+
+public class ScanFailure {
+
+    public enum Reason {
+        PARSE_ERROR, IO_ERROR, TIMEOUT, TOO_LARGE
+    }
+
+    public enum Policy {
+        // record the failure and go on with the next file
+        SKIP,
+        // stop the scan at the first failure
+        FAIL
+    }
+
+    private final File file;
+    private final Reason reason;
+    private final String message;
+
+    public ScanFailure(File file, Reason reason, String message) {
+        this.file = file;
+        this.reason = reason;
+        this.message = message;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    @Override
+    public String toString() {
+        return reason + " " + file + ": " + message;
+    }
+}
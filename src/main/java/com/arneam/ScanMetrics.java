@@ -0,0 +1,308 @@
+package com.arneam;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+// Where a scan spends its time. Parse time is summed over all worker threads, so with
+// parallelism it can exceed the wall clock time of the scan, and throughput over parse time
+// is that of a single thread. Files whose result came from a ScanCache count as files and
+// bytes but not as parse time or slowest files.
+public class ScanMetrics implements ScanMetricsMBean {
+
+    public enum Stage {
+        WALK, PARSE, RESOLVE, FILTER, EXPORT
+    }
+
+    private static final int DEFAULT_SLOWEST_FILES = 10;
+
+    private final Map<Stage, LongAdder> nanos = new EnumMap<>(Stage.class);
+    private final LongAdder files = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheHitBytes = new LongAdder();
+    private final LongAdder scanNanos = new LongAdder();
+    private final LongAdder parseFailures = new LongAdder();
+    private final Queue<String> failedFiles = new ConcurrentLinkedQueue<>();
+    private final int slowestFileCount;
+    private final PriorityQueue<FileTiming> slowestFiles =
+        new PriorityQueue<>(Comparator.comparingLong((FileTiming it) -> it.nanos));
+    private ObjectName objectName;
+
+    public ScanMetrics() {
+        this(DEFAULT_SLOWEST_FILES);
+    }
+
+    public ScanMetrics(int slowestFileCount) {
+        this.slowestFileCount = slowestFileCount;
+        for (Stage stage : Stage.values()) {
+            nanos.put(stage, new LongAdder());
+        }
+    }
+
+    public void record(Stage stage, long elapsedNanos) {
+        nanos.get(stage).add(elapsedNanos);
+    }
+
+    public <T> T time(Stage stage, Supplier<T> work) {
+        long start = System.nanoTime();
+        try {
+            return work.get();
+        } finally {
+            record(stage, System.nanoTime() - start);
+        }
+    }
+
+    public void time(Stage stage, Runnable work) {
+        long start = System.nanoTime();
+        try {
+            work.run();
+        } finally {
+            record(stage, System.nanoTime() - start);
+        }
+    }
+
+    public void recordFile(File file, long size, long elapsedNanos) {
+        files.increment();
+        bytes.add(size);
+        record(Stage.PARSE, elapsedNanos);
+        if (slowestFileCount > 0) {
+            synchronized (slowestFiles) {
+                if (slowestFiles.size() < slowestFileCount) {
+                    slowestFiles.add(new FileTiming(file.getPath(), elapsedNanos));
+                } else if (slowestFiles.peek().nanos < elapsedNanos) {
+                    slowestFiles.poll();
+                    slowestFiles.add(new FileTiming(file.getPath(), elapsedNanos));
+                }
+            }
+        }
+    }
+
+    public void recordCacheHit(File file, long size) {
+        files.increment();
+        bytes.add(size);
+        cacheHits.increment();
+        cacheHitBytes.add(size);
+    }
+
+    // wall clock time of a whole scan or update, walk to graph
+    public void recordScan(long elapsedNanos) {
+        scanNanos.add(elapsedNanos);
+    }
+
+    public void recordFailure(File file) {
+        parseFailures.increment();
+        failedFiles.add(file.getPath());
+    }
+
+    public long getMillis(Stage stage) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos.get(stage).sum());
+    }
+
+    @Override
+    public long getFiles() {
+        return files.sum();
+    }
+
+    @Override
+    public long getBytes() {
+        return bytes.sum();
+    }
+
+    @Override
+    public long getCacheHits() {
+        return cacheHits.sum();
+    }
+
+    @Override
+    public long getParseFailures() {
+        return parseFailures.sum();
+    }
+
+    @Override
+    public String[] getFailedFiles() {
+        return failedFiles.toArray(new String[0]);
+    }
+
+    @Override
+    public long getWalkMillis() {
+        return getMillis(Stage.WALK);
+    }
+
+    @Override
+    public long getParseMillis() {
+        return getMillis(Stage.PARSE);
+    }
+
+    @Override
+    public long getResolveMillis() {
+        return getMillis(Stage.RESOLVE);
+    }
+
+    @Override
+    public long getFilterMillis() {
+        return getMillis(Stage.FILTER);
+    }
+
+    @Override
+    public long getExportMillis() {
+        return getMillis(Stage.EXPORT);
+    }
+
+    @Override
+    public long getScanMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(scanNanos.sum());
+    }
+
+    @Override
+    public double getParsedFilesPerSecond() {
+        return perSecond(files.sum() - cacheHits.sum(), nanos.get(Stage.PARSE).sum());
+    }
+
+    @Override
+    public double getParsedBytesPerSecond() {
+        return perSecond(bytes.sum() - cacheHitBytes.sum(), nanos.get(Stage.PARSE).sum());
+    }
+
+    @Override
+    public double getScannedFilesPerSecond() {
+        return perSecond(files.sum(), scanNanos.sum());
+    }
+
+    @Override
+    public double getScannedBytesPerSecond() {
+        return perSecond(bytes.sum(), scanNanos.sum());
+    }
+
+    @Override
+    public String[] getSlowestFiles() {
+        return slowest().stream()
+            .map(it -> it.path + " (" + TimeUnit.NANOSECONDS.toMillis(it.nanos) + " ms)")
+            .toArray(String[]::new);
+    }
+
+    @Override
+    public void reset() {
+        nanos.values().forEach(LongAdder::reset);
+        files.reset();
+        bytes.reset();
+        cacheHits.reset();
+        cacheHitBytes.reset();
+        scanNanos.reset();
+        parseFailures.reset();
+        failedFiles.clear();
+        synchronized (slowestFiles) {
+            slowestFiles.clear();
+        }
+    }
+
+    public ScanMetrics register(String name) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            objectName = new ObjectName("com.arneam:type=ScanMetrics,name=" + ObjectName.quote(name));
+            server.registerMBean(this, objectName);
+        } catch (JMException e) {
+            throw new RuntimeException(e);
+        }
+        return this;
+    }
+
+    public void unregister() {
+        if (objectName != null) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+            } catch (JMException e) {
+                throw new RuntimeException(e);
+            }
+            objectName = null;
+        }
+    }
+
+    public void writeJson(Path path) {
+        try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            writer.write("{\n");
+            writer.write("  \"files\": " + getFiles() + ",\n");
+            writer.write("  \"bytes\": " + getBytes() + ",\n");
+            writer.write("  \"cacheHits\": " + getCacheHits() + ",\n");
+            writer.write("  \"parseFailures\": " + getParseFailures() + ",\n");
+            writer.write("  \"failedFiles\": [");
+            String[] failed = getFailedFiles();
+            for (int i = 0; i < failed.length; i++) {
+                writer.write((i == 0 ? "" : ",") + "\n    " + Json.quote(failed[i]));
+            }
+            writer.write(failed.length == 0 ? "],\n" : "\n  ],\n");
+            writer.write("  \"stages\": {");
+            Stage[] stages = Stage.values();
+            for (int i = 0; i < stages.length; i++) {
+                writer.write((i == 0 ? "" : ",") + "\n    \"" + stages[i].name().toLowerCase() + "Millis\": "
+                    + getMillis(stages[i]));
+            }
+            writer.write("\n  },\n");
+            writer.write("  \"scanMillis\": " + getScanMillis() + ",\n");
+            writer.write("  \"throughput\": {\n");
+            writer.write("    \"parsedFilesPerSecond\": " + rate(getParsedFilesPerSecond()) + ",\n");
+            writer.write("    \"parsedBytesPerSecond\": " + rate(getParsedBytesPerSecond()) + ",\n");
+            writer.write("    \"scannedFilesPerSecond\": " + rate(getScannedFilesPerSecond()) + ",\n");
+            writer.write("    \"scannedBytesPerSecond\": " + rate(getScannedBytesPerSecond()) + "\n");
+            writer.write("  },\n");
+            writer.write("  \"slowestFiles\": [");
+            List<FileTiming> slowest = slowest();
+            for (int i = 0; i < slowest.size(); i++) {
+                writer.write((i == 0 ? "" : ",") + "\n    {\"path\": " + Json.quote(slowest.get(i).path)
+                    + ", \"millis\": " + TimeUnit.NANOSECONDS.toMillis(slowest.get(i).nanos) + "}");
+            }
+            writer.write(slowest.isEmpty() ? "]\n" : "\n  ]\n");
+            writer.write("}\n");
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    // zero until some time was recorded
+    private static double perSecond(long count, long elapsedNanos) {
+        return elapsedNanos == 0 ? 0 : count * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+
+    private static String rate(double perSecond) {
+        return String.format(Locale.ROOT, "%.1f", perSecond);
+    }
+
+    // slowest first
+    private List<FileTiming> slowest() {
+        List<FileTiming> timings;
+        synchronized (slowestFiles) {
+            timings = new ArrayList<>(slowestFiles);
+        }
+        timings.sort(Comparator.comparingLong((FileTiming it) -> it.nanos).reversed());
+        return timings;
+    }
+
+    private static final class FileTiming {
+        final String path;
+        final long nanos;
+
+        FileTiming(String path, long nanos) {
+            this.path = path;
+            this.nanos = nanos;
+        }
+    }
+}
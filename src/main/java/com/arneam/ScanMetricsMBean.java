@@ -0,0 +1,38 @@
+package com.arneam;
+
+public interface ScanMetricsMBean {
+
+    long getFiles();
+
+    long getBytes();
+
+    long getCacheHits();
+
+    long getParseFailures();
+
+    String[] getFailedFiles();
+
+    long getWalkMillis();
+
+    long getParseMillis();
+
+    long getResolveMillis();
+
+    long getFilterMillis();
+
+    long getExportMillis();
+
+    long getScanMillis();
+
+    double getParsedFilesPerSecond();
+
+    double getParsedBytesPerSecond();
+
+    double getScannedFilesPerSecond();
+
+    double getScannedBytesPerSecond();
+
+    String[] getSlowestFiles();
+
+    void reset();
+}
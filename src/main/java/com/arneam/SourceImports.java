@@ -0,0 +1,68 @@
+package com.arneam;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+public class SourceImports {
+
+    private final String packageName;
+    private final List<String> imports;
+    private final List<String> wildcardImports;
+    private final List<String> references;
+
+    public SourceImports(String packageName, List<String> imports) {
+        this(packageName, imports, Collections.emptyList(), Collections.emptyList());
+    }
+
+    public SourceImports(String packageName, List<String> imports, List<String> wildcardImports,
+                         List<String> references) {
+        this.packageName = packageName;
+        this.imports = Collections.unmodifiableList(imports);
+        this.wildcardImports = Collections.unmodifiableList(wildcardImports);
+        this.references = Collections.unmodifiableList(references);
+    }
+
+    // null for classes in the default package
+    public String getPackageName() {
+        return packageName;
+    }
+
+    public List<String> getImports() {
+        return imports;
+    }
+
+    // packages imported with ".*", also listed in imports; static wildcards are not included
+    public List<String> getWildcardImports() {
+        return wildcardImports;
+    }
+
+    // type names used in the source, simple or qualified as written, for TypeIndex resolution
+    public List<String> getReferences() {
+        return references;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof SourceImports)) {
+            return false;
+        }
+        SourceImports that = (SourceImports) o;
+        return Objects.equals(packageName, that.packageName) && imports.equals(that.imports)
+            && wildcardImports.equals(that.wildcardImports) && references.equals(that.references);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(packageName, imports, wildcardImports, references);
+    }
+
+    @Override
+    public String toString() {
+        return "SourceImports{packageName=" + packageName + ", imports=" + imports
+            + ", wildcardImports=" + wildcardImports + ", references=" + references + "}";
+    }
+}
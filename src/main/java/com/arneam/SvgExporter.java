@@ -0,0 +1,34 @@
+package com.arneam;
+
+import org.apache.commons.lang3.tuple.Pair;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Set;
+
+public class SvgExporter implements GraphExporter {
+
+    private final GraphRenderer renderer;
+
+    public SvgExporter() {
+        this(new GraphRenderer());
+    }
+
+    public SvgExporter(GraphRenderer renderer) {
+        this.renderer = renderer;
+    }
+
+    @Override
+    public void export(Set<String> nodes, Set<Pair<String, String>> edges, Writer writer) throws IOException {
+        DependencyGraph.Builder builder = new DependencyGraph.Builder();
+        for (Pair<String, String> edge : edges) {
+            builder.addEdge(edge.getKey(), edge.getValue());
+        }
+        export(builder.build(), writer);
+    }
+
+    @Override
+    public void export(DependencyGraph graph, Writer writer) throws IOException {
+        renderer.writeSvg(graph, writer);
+    }
+}
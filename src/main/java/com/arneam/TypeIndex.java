@@ -0,0 +1,146 @@
+package com.arneam;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+// Fully qualified names of the top-level types of a source tree and the files declaring
+// them. A scan fills it from the classes it already parsed, then resolves the type names
+// each file references against it: same-package types, types behind wildcard imports
+// and qualified names, which need no import. Lookups are plain hash lookups on a
+// concurrent map, so files resolve in parallel. The index can be saved and loaded to
+// resolve another tree (or the next run) against it without parsing its sources again.
+//
+// File format: one "<type>\t<path>" line per type.
+public class TypeIndex {
+
+    private final Map<String, Path> types = new ConcurrentHashMap<>();
+
+    public void put(String type, Path file) {
+        types.put(type, file);
+    }
+
+    public boolean contains(String type) {
+        return types.containsKey(type);
+    }
+
+    public Path fileOf(String type) {
+        return types.get(type);
+    }
+
+    public Set<String> types() {
+        return new HashSet<>(types.keySet());
+    }
+
+    public int size() {
+        return types.size();
+    }
+
+    void removeFiles(Predicate<Path> removed) {
+        types.values().removeIf(removed);
+    }
+
+    // indexed type a reference in the given source stands for, null when there is none;
+    // nested types resolve to their top-level type
+    public String resolve(String reference, SourceImports source) {
+        int dot = reference.indexOf('.');
+        if (dot >= 0) {
+            for (String prefix = reference; ; prefix = prefix.substring(0, prefix.lastIndexOf('.'))) {
+                if (contains(prefix)) {
+                    return prefix;
+                }
+                if (prefix.indexOf('.') < 0) {
+                    break;
+                }
+            }
+            return resolve(reference.substring(0, dot), source);
+        }
+
+        for (String item : source.getImports()) {
+            if (item.endsWith("." + reference) && contains(item)) {
+                return item;
+            }
+        }
+        String samePackage = source.getPackageName() == null ? reference : source.getPackageName() + "." + reference;
+        if (contains(samePackage)) {
+            return samePackage;
+        }
+        for (String wildcard : source.getWildcardImports()) {
+            if (contains(wildcard + "." + reference)) {
+                return wildcard + "." + reference;
+            }
+        }
+        return null;
+    }
+
+    // the imports of a source plus every resolved reference other than the class itself;
+    // a wildcard import is replaced by the types resolved through it, if there are any
+    public Set<String> dependencies(SourceImports source, String className) {
+        Set<String> resolved = new LinkedHashSet<>();
+        for (String reference : source.getReferences()) {
+            String type = resolve(reference, source);
+            if (type != null && !type.equals(className)) {
+                resolved.add(type);
+            }
+        }
+
+        Set<String> usedWildcards = new HashSet<>();
+        for (String type : resolved) {
+            usedWildcards.add(GraphAggregation.packageOf(type));
+        }
+        Set<String> dependencies = new LinkedHashSet<>();
+        for (String item : source.getImports()) {
+            if (!source.getWildcardImports().contains(item) || !usedWildcards.contains(item)) {
+                dependencies.add(item);
+            }
+        }
+        dependencies.addAll(resolved);
+        return dependencies;
+    }
+
+    // written next to the file and moved over it, so a crash never leaves a truncated index
+    public void save(Path file) {
+        List<String> lines = new ArrayList<>(types.size());
+        types.forEach((type, path) -> lines.add(type + "\t" + path));
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Path temp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+            Files.write(temp, lines, StandardCharsets.UTF_8);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    // a missing file gives an empty index
+    public static TypeIndex load(Path file) {
+        TypeIndex index = new TypeIndex();
+        if (!Files.isRegularFile(file)) {
+            return index;
+        }
+        try {
+            for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                int tab = line.indexOf('\t');
+                if (tab < 0) {
+                    throw new IllegalStateException("corrupt type index " + file + ": " + line);
+                }
+                index.put(line.substring(0, tab), Paths.get(line.substring(tab + 1)));
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return index;
+    }
+}
@@ -0,0 +1,139 @@
+package com.arneam;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Collectors;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+public class BytecodeDependenciesTest {
+
+    private static final Path CLASSES = Paths.get("target/classes");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void shouldFindImportedSamePackageAndNestedReferences() {
+        Map<String, Set<String>> dependencies = new BytecodeDependencies(CLASSES).all().data();
+
+        assertThat(dependencies.get("com.arneam.ClassDependencies"), hasItems(
+            "com.arneam.DirWalker",
+            "com.arneam.DependencyGraph",
+            "java.util.regex.Pattern",
+            "java.util.concurrent.ForkJoinPool"));
+        assertThat(dependencies.get("com.arneam.ClassDependencies"), not(hasItem("com.arneam.ClassDependencies")));
+        assertThat(dependencies.keySet(), not(hasItem(containsString("$"))));
+    }
+
+    @Test
+    public void shouldReadDescriptorTypes() {
+        Set<String> references = new HashSet<>();
+        ClassFileReader.addDescriptorTypes("(ILjava/util/List;[Ljava/util/Map$Entry;[J)Ljava/lang/String;", references);
+
+        assertThat(references, containsInAnyOrder("java.util.List", "java.util.Map", "java.lang.String"));
+        assertThat(ClassFileReader.typeName("[[I"), nullValue());
+    }
+
+    @Test
+    public void shouldReadGenericSignatures() {
+        Set<String> references = new HashSet<>();
+        ClassFileReader.addDescriptorTypes(
+            "<L:Ljava/lang/Object;K::Ljava/lang/Comparable<-TK;>;>(Ljava/util/List<+TL;>;[TK;)"
+                + "Ljava/util/Map$Entry<TK;Ly/Id;>.Inner<*>;", references);
+
+        assertThat(references, containsInAnyOrder(
+            "java.lang.Object", "java.lang.Comparable", "java.util.List", "java.util.Map", "y.Id"));
+    }
+
+    @Test
+    public void shouldFindTheTypesSourcesDeclareOnlyInSignaturesAndAnnotations() throws IOException {
+        Path sources = folder.newFolder("src").toPath();
+        write(sources, "y/Order.java", "package y; public class Order {}");
+        write(sources, "y/Id.java", "package y; public class Id {}");
+        write(sources, "y/Marker.java", "package y; public @interface Marker {}");
+        write(sources, "y/NotNull.java", "package y; import java.lang.annotation.*; "
+            + "@Target(ElementType.TYPE_USE) public @interface NotNull {}");
+        write(sources, "x/Repo.java", "package x; import java.util.List; import y.Id; import y.Marker; "
+            + "import y.NotNull; import y.Order; @Marker public class Repo { "
+            + "List<Order> orders; List<@NotNull String> names; void find(@Marker Id id) {} }");
+        Path classes = folder.newFolder("classes").toPath();
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        List<String> arguments = new ArrayList<>(Arrays.asList("-d", classes.toString()));
+        new DirWalker(sources).files().forEach(it -> arguments.add(it.toString()));
+        assertThat(compiler.run(null, null, null, arguments.toArray(new String[0])), is(0));
+
+        Map<String, Set<String>> fromBytecode = new BytecodeDependencies(classes).allWith("y\\..*").data();
+        Map<String, Set<String>> fromSources = new ClassDependencies(sources.toFile()).allWith("y\\..*").data();
+
+        assertThat(fromBytecode.get("x.Repo"), containsInAnyOrder("y.Order", "y.Id", "y.Marker", "y.NotNull"));
+        assertThat(fromBytecode.get("x.Repo"), equalTo(fromSources.get("x.Repo")));
+    }
+
+    @Test
+    public void shouldSkipCorruptClassFilesAndArchives() throws IOException {
+        Path root = folder.newFolder("corrupt").toPath();
+        Files.copy(CLASSES.resolve("com/arneam/DirWalker.class"), root.resolve("DirWalker.class"));
+        Files.write(root.resolve("Broken.class"), new byte[]{(byte) 0xCA, (byte) 0xFE, (byte) 0xBA, (byte) 0xBE, 0, 0});
+        Files.write(root.resolve("broken.jar"), "not a zip".getBytes(StandardCharsets.UTF_8));
+
+        BytecodeDependencies bytecodeDependencies = new BytecodeDependencies(root).all();
+
+        assertThat(bytecodeDependencies.data(), hasKey("com.arneam.DirWalker"));
+        assertThat(bytecodeDependencies.failures(), hasSize(2));
+        assertThat(bytecodeDependencies.failures().stream()
+                .map(it -> it.getFile().getName())
+                .collect(Collectors.toList()),
+            containsInAnyOrder("Broken.class", "broken.jar"));
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void shouldStopAtTheFirstCorruptFileWhenAskedTo() throws IOException {
+        Path root = folder.newFolder("corrupt").toPath();
+        Files.write(root.resolve("Broken.class"), new byte[]{1, 2, 3});
+
+        new BytecodeDependencies(root).onFailure(ScanFailure.Policy.FAIL).all();
+    }
+
+    @Test
+    public void shouldReadJarsLikeClassDirectories() throws IOException {
+        Path jar = folder.getRoot().toPath().resolve("classes.jar");
+        List<Path> classFiles = new DirWalker(CLASSES).filter(it -> it.toString().endsWith(".class")).files();
+        try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar))) {
+            for (Path classFile : classFiles) {
+                out.putNextEntry(new JarEntry(CLASSES.relativize(classFile).toString().replace('\\', '/')));
+                Files.copy(classFile, (OutputStream) out);
+                out.closeEntry();
+            }
+        }
+
+        assertThat(new BytecodeDependencies(jar).parallelism(2).allWith("com\\.arneam\\..*").data(),
+            equalTo(new BytecodeDependencies(CLASSES).parallelism(1).allWith("com\\.arneam\\..*").data()));
+    }
+
+    private void write(Path root, String name, String content) throws IOException {
+        Path file = root.resolve(name);
+        Files.createDirectories(file.getParent());
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+}
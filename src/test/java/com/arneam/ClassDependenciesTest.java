@@ -13,18 +13,20 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.hamcrest.Matchers.*;
 import static org.junit.Assert.assertThat;
 
 public class ClassDependenciesTest {
 
-    //static final String FILE_PATH = "/home/daniel/code/opensource/code-dependency-graph/src/main/java";
-    static final String FILE_PATH = "/Users/dma/code/opensource/code-dependency-graph/src/main/java";
+    // snapshot of the original sources, so the expectations below do not drift with src/main/java
+    static final String FILE_PATH = "src/test/resources/fixture";
 
     private static final String NODES_CSV_FILE = "./nodes.csv";
     private static final String EDGES_CSV_FILE = "./edges.csv";
     private static final String GRAPHML_FILE = "./classDependencies.graphml";
+    private static final String DIRECT_GRAPHML_FILE = "./classDependencies-direct.graphml";
     File projectDir;
     ClassDependencies classDependencies;
 
@@ -267,4 +269,47 @@ public class ClassDependenciesTest {
         assertThat(xmlFile.size(), greaterThan(0));
     }
 
+    @Test
+    public void shouldLoadTheSameDependenciesSequentiallyAndInParallel() {
+        File sources = new File("src");
+        Map<String, Set<String>> sequential = new ClassDependencies(sources).all().data();
+        Map<String, Set<String>> parallel = new ClassDependencies(sources).parallelism(4).all().data();
+
+        assertThat(parallel.isEmpty(), is(false));
+        assertThat(parallel, equalTo(sequential));
+    }
+
+    @Test
+    public void shouldParseOnceForManyFilters() {
+        AtomicInteger parsed = new AtomicInteger();
+        classDependencies.using(file -> {
+            parsed.incrementAndGet();
+            return new JavaParserImportExtractor().extract(file);
+        });
+
+        assertThat(classDependencies.all().nodes().size(), equalTo(23));
+        assertThat(classDependencies.allWith(".*(File)").nodes().size(), equalTo(3));
+        assertThat(classDependencies.allWith(".*(Map)").edges().size(), equalTo(2));
+        assertThat(parsed.get(), equalTo(2));
+
+        classDependencies.rescan();
+        assertThat(parsed.get(), equalTo(4));
+        assertThat(classDependencies.edges().size(), equalTo(2));
+    }
+
+    @Test
+    public void shouldWriteTheSameGraphMLWithoutCSVFiles() throws IOException {
+        Set<String> nodes = classDependencies.all().nodes();
+        Set<Pair<String, String>> edges = classDependencies.all().edges();
+
+        classDependencies.writeNodesIntoCSVFile(nodes, System.lineSeparator(), NODES_CSV_FILE);
+        classDependencies.writeEdgesIntoCSVFile(edges, ";", System.lineSeparator(), EDGES_CSV_FILE);
+        classDependencies.generateGraphMLFromCSVFiles(NODES_CSV_FILE, EDGES_CSV_FILE, GRAPHML_FILE);
+
+        classDependencies.writeGraphMLFile(nodes, edges, DIRECT_GRAPHML_FILE);
+
+        assertThat(Files.readAllLines(Paths.get(DIRECT_GRAPHML_FILE)),
+            equalTo(Files.readAllLines(Paths.get(GRAPHML_FILE))));
+    }
+
 }
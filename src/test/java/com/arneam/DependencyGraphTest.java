@@ -0,0 +1,64 @@
+package com.arneam;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.Test;
+
+import java.util.Set;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+public class DependencyGraphTest {
+
+    private DependencyGraph graph = new DependencyGraph.Builder()
+        .addEdge("a.A", "java.util.List")
+        .addEdge("a.B", "java.io.File")
+        .addEdge("a.A", "java.io.File")
+        .addEdge("a.A", "java.util.List")
+        .build();
+
+    @Test
+    public void shouldInternEachNameOnce() {
+        SymbolTable symbols = graph.symbols();
+        assertThat(symbols.size(), equalTo(4));
+        assertThat(symbols.name(symbols.id("java.io.File")), equalTo("java.io.File"));
+        assertThat(symbols.id("java.util.Map"), equalTo(-1));
+    }
+
+    @Test
+    public void shouldDropDuplicateEdges() {
+        assertThat(graph.nodeCount(), equalTo(4));
+        assertThat(graph.edgeCount(), equalTo(3));
+        assertThat(graph.outDegree(graph.symbols().id("a.A")), equalTo(2));
+    }
+
+    @Test
+    public void shouldExposeMapNodesAndEdgesViews() {
+        assertThat(graph.toMap(), hasEntry(is("a.A"), containsInAnyOrder("java.util.List", "java.io.File")));
+        assertThat(graph.toMap(), hasEntry(is("a.B"), contains("java.io.File")));
+        assertThat(graph.nodeNames(), containsInAnyOrder("a.A", "a.B", "java.util.List", "java.io.File"));
+
+        Set<Pair<String, String>> edges = graph.edgePairs();
+        assertThat(edges, hasSize(3));
+        assertThat(edges, hasItem(allOf(hasProperty("key", is("a.B")), hasProperty("value", is("java.io.File")))));
+    }
+
+    @Test
+    public void shouldFilterEdgesByTargetName() {
+        DependencyGraph filtered = graph.filter(name -> name.endsWith("List"));
+
+        assertThat(filtered.nodeNames(), containsInAnyOrder("a.A", "java.util.List"));
+        assertThat(filtered.edgeCount(), equalTo(1));
+        assertThat(filtered.toMap().keySet(), contains("a.A"));
+    }
+
+    @Test
+    public void shouldGrowTheSymbolTable() {
+        SymbolTable symbols = new SymbolTable();
+        for (int i = 0; i < 10000; i++) {
+            assertThat(symbols.intern("Name" + i), equalTo(i));
+        }
+        assertThat(symbols.intern("Name42"), equalTo(42));
+        assertThat(symbols.id("Name9999"), equalTo(9999));
+    }
+}
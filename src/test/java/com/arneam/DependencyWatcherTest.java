@@ -0,0 +1,152 @@
+package com.arneam;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class DependencyWatcherTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Rule
+    public TemporaryFolder elsewhere = new TemporaryFolder();
+
+    private Path projectDir;
+    private ClassDependencies classDependencies;
+    private DependencyWatcher watcher;
+
+    @Before
+    public void setup() throws IOException {
+        projectDir = folder.getRoot().toPath();
+        write("a/A.java", "package a; import java.util.List; class A {}");
+        write("a/B.java", "package a; import java.io.File; class B {}");
+        classDependencies = new ClassDependencies(projectDir.toFile()).all();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        if (watcher != null) {
+            watcher.close();
+        }
+    }
+
+    @Test
+    public void shouldReplaceTheEdgesOfChangedFilesOnly() throws IOException {
+        write("a/A.java", "package a; import java.util.Map; class A {}");
+        Files.delete(projectDir.resolve("a/B.java"));
+        write("a/C.java", "package a; import java.io.File; class C {}");
+
+        classDependencies.update(Arrays.asList(
+            projectDir.resolve("a/A.java").toFile(),
+            projectDir.resolve("a/B.java").toFile(),
+            projectDir.resolve("a/C.java").toFile()));
+
+        assertThat(classDependencies.data().keySet(), containsInAnyOrder("a.A", "a.C"));
+        assertThat(classDependencies.data(), hasEntry(is("a.A"), contains("java.util.Map")));
+        assertThat(classDependencies.nodes(), not(hasItem("java.util.List")));
+    }
+
+    @Test
+    public void shouldUpdateTheGraphWhenSourcesChange() throws Exception {
+        Semaphore changes = new Semaphore(0);
+        watcher = new DependencyWatcher(classDependencies)
+            .debounce(100, TimeUnit.MILLISECONDS)
+            .onChange(it -> changes.release())
+            .start();
+
+        write("a/A.java", "package a; import java.util.Map; class A {}");
+        awaitChange(changes, () -> classDependencies.data().get("a.A").contains("java.util.Map"));
+        assertThat(classDependencies.data(), hasEntry(is("a.A"), contains("java.util.Map")));
+
+        write("b/D.java", "package b; import a.A; class D {}");
+        awaitChange(changes, () -> classDependencies.data().containsKey("b.D"));
+        assertThat(classDependencies.data(), hasEntry(is("b.D"), contains("a.A")));
+    }
+
+    @Test
+    public void shouldFollowDirectoriesDeletedAndMovedInOrOut() throws Exception {
+        write("b/D.java", "package b; import a.A; class D {}");
+        write("c/E.java", "package c; import a.B; class E {}");
+        classDependencies.rescan();
+        Path outside = elsewhere.getRoot().toPath();
+        Semaphore changes = new Semaphore(0);
+        watcher = new DependencyWatcher(classDependencies)
+            .debounce(100, TimeUnit.MILLISECONDS)
+            .onChange(it -> changes.release())
+            .start();
+
+        delete(projectDir.resolve("b"));
+        awaitChange(changes, () -> !classDependencies.data().containsKey("b.D"));
+        assertThat(classDependencies.nodes(), not(hasItem("b.D")));
+
+        Files.move(projectDir.resolve("c"), outside.resolve("c"));
+        awaitChange(changes, () -> !classDependencies.data().containsKey("c.E"));
+        assertThat(classDependencies.nodes(), not(hasItem("c.E")));
+
+        Files.move(outside.resolve("c"), projectDir.resolve("d"));
+        awaitChange(changes, () -> classDependencies.data().containsKey("c.E"));
+        assertThat(classDependencies.data(), hasEntry(is("c.E"), contains("a.B")));
+    }
+
+    @Test
+    public void shouldScanEverythingAgainAfterAFailedUpdate() throws Exception {
+        classDependencies.onFailure(ScanFailure.Policy.FAIL).maxFileSize(200);
+        Semaphore changes = new Semaphore(0);
+        Semaphore errors = new Semaphore(0);
+        watcher = new DependencyWatcher(classDependencies)
+            .debounce(100, TimeUnit.MILLISECONDS)
+            .onChange(it -> changes.release())
+            .onError(e -> errors.release())
+            .start();
+
+        write("a/A.java", "package a; import java.util.Map; class A {}");
+        write("a/Big.java", "package a; class Big { " + String.join(" ", Collections.nCopies(50, "int i;")) + " }");
+        assertTrue("no error seen", errors.tryAcquire(10, TimeUnit.SECONDS));
+
+        write("a/Big.java", "package a; import java.io.File; class Big {}");
+        awaitChange(changes, () -> classDependencies.data().containsKey("a.Big"));
+        assertThat(classDependencies.data(), hasEntry(is("a.A"), contains("java.util.Map")));
+    }
+
+    private void awaitChange(Semaphore changes, BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+        while (!condition.getAsBoolean()) {
+            long remaining = deadline - System.currentTimeMillis();
+            assertTrue("no change seen", remaining > 0 && changes.tryAcquire(remaining, TimeUnit.MILLISECONDS));
+        }
+    }
+
+    private void delete(Path dir) throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    private void write(String name, String content) throws IOException {
+        Path file = projectDir.resolve(name);
+        Files.createDirectories(file.getParent());
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,92 @@
+package com.arneam;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assume.assumeNoException;
+
+public class DirWalkerTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path root;
+
+    @Before
+    public void setup() throws IOException {
+        root = folder.getRoot().toPath();
+        touch("com/arneam/A.java");
+        touch("com/arneam/B.java");
+        touch("com/arneam/notes.txt");
+        touch("target/generated/C.java");
+        touch(".git/objects/D.java");
+    }
+
+    @Test
+    public void shouldListFilesPruningExcludedDirectories() {
+        List<String> files = relative(new DirWalker(root).exclude("target")
+            .filter(path -> path.toString().endsWith(".java"))
+            .files());
+
+        assertThat(files, containsInAnyOrder("com/arneam/A.java", "com/arneam/B.java"));
+    }
+
+    @Test
+    public void shouldFollowSymbolicLinksWithoutLooping() throws IOException {
+        try {
+            Files.createSymbolicLink(root.resolve("com/arneam/loop"), root.resolve("com"));
+            Files.createSymbolicLink(root.resolve("linked"), root.resolve("com/arneam"));
+        } catch (UnsupportedOperationException | IOException e) {
+            assumeNoException(e);
+        }
+
+        List<String> files = relative(new DirWalker(root).exclude("target")
+            .filter(path -> path.toString().endsWith(".java"))
+            .files());
+
+        assertThat(files, containsInAnyOrder(
+            "com/arneam/A.java", "com/arneam/B.java", "linked/A.java", "linked/B.java"));
+    }
+
+    @Test
+    public void shouldReturnNothingForMissingRoot() {
+        assertThat(new DirWalker(root.resolve("missing")).files(), empty());
+    }
+
+    @Test
+    public void shouldKeepDirExplorerLevelsAndPaths() {
+        List<String> visited = new ArrayList<>();
+        new DirExplorer(
+            (level, path, file) -> path.endsWith(".java"),
+            (level, path, file) -> visited.add(level + ":" + path + ":" + file.getName()))
+            .explore(root.toFile());
+
+        assertThat(visited, containsInAnyOrder(
+            "3:/com/arneam/A.java:A.java",
+            "3:/com/arneam/B.java:B.java",
+            "3:/target/generated/C.java:C.java"));
+    }
+
+    private List<String> relative(List<Path> files) {
+        return files.stream()
+            .map(it -> root.relativize(it).toString().replace('\\', '/'))
+            .collect(Collectors.toList());
+    }
+
+    private void touch(String name) throws IOException {
+        Path file = root.resolve(name);
+        Files.createDirectories(file.getParent());
+        Files.createFile(file);
+    }
+}
@@ -0,0 +1,77 @@
+package com.arneam;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+public class ForceLayoutTest {
+
+    @Test
+    public void shouldApproximateExactRepulsionWithBarnesHut() {
+        Random random = new Random(7);
+        double[] x = new double[500];
+        double[] y = new double[500];
+        for (int i = 0; i < x.length; i++) {
+            x[i] = random.nextDouble() * 20;
+            y[i] = random.nextDouble() * 20;
+        }
+        ForceLayout.QuadTree tree = new ForceLayout.QuadTree(x, y);
+
+        for (int node = 0; node < x.length; node += 50) {
+            double fx = 0;
+            double fy = 0;
+            for (int other = 0; other < x.length; other++) {
+                if (other != node) {
+                    double ex = x[node] - x[other];
+                    double ey = y[node] - y[other];
+                    double distanceSquared = ex * ex + ey * ey;
+                    fx += ex / distanceSquared;
+                    fy += ey / distanceSquared;
+                }
+            }
+            double[] exact = tree.repulsion(node, 0);
+            assertThat(exact[0], closeTo(fx, 1e-6));
+            assertThat(exact[1], closeTo(fy, 1e-6));
+
+            double[] approximate = tree.repulsion(node, 0.5);
+            double error = Math.hypot(approximate[0] - fx, approximate[1] - fy);
+            assertThat(error, lessThan(0.1 * Math.hypot(fx, fy) + 0.5));
+        }
+    }
+
+    @Test
+    public void shouldKeepConnectedNodesTogether() {
+        // two cliques of ten nodes without edges between them
+        List<int[]> edges = new ArrayList<>();
+        for (int clique = 0; clique < 2; clique++) {
+            for (int a = 0; a < 10; a++) {
+                for (int b = a + 1; b < 10; b++) {
+                    edges.add(new int[]{clique * 10 + a, clique * 10 + b});
+                }
+            }
+        }
+        int[] sources = edges.stream().mapToInt(it -> it[0]).toArray();
+        int[] targets = edges.stream().mapToInt(it -> it[1]).toArray();
+
+        double[][] positions = new ForceLayout().parallelism(2).layout(20, sources, targets);
+
+        double inside = 0;
+        double across = 0;
+        for (int a = 0; a < 20; a++) {
+            for (int b = 0; b < 20; b++) {
+                double distance = Math.hypot(positions[0][a] - positions[0][b], positions[1][a] - positions[1][b]);
+                if (a / 10 == b / 10) {
+                    inside += distance / 100;
+                } else {
+                    across += distance / 100;
+                }
+            }
+        }
+        assertThat(inside, lessThan(across / 2));
+    }
+}
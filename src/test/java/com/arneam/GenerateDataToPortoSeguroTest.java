@@ -13,14 +13,8 @@ public class GenerateDataToPortoSeguroTest {
         File projectDir = new File(FILE_PATH);
         ClassDependencies classDependencies = new ClassDependencies(projectDir);
 
-        classDependencies.writeNodesIntoCSVFile(classDependencies.all().nodes(),
-                System.lineSeparator(), "./portoprint-nodes.csv");
-
-        classDependencies.writeEdgesIntoCSVFile(classDependencies.allWith(".*(Dao)").edges(),
-                ";", System.lineSeparator(), "./portoprint-edges.csv");
-
-        classDependencies.generateGraphMLFromCSVFiles("./portoprint-nodes.csv",
-                "./portoprint-edges.csv", "./portoprint-classDependencies.graphml");
+        classDependencies.writeGraphMLFile(classDependencies.all().nodes(),
+                classDependencies.allWith(".*(Dao)").edges(), "./portoprint-classDependencies.graphml");
     }
 
 
@@ -0,0 +1,74 @@
+package com.arneam;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Collections;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+public class GraphAggregationTest {
+
+    private DependencyGraph graph = new DependencyGraph.Builder()
+        .addEdge("com.a.service.OrderService", "com.a.dao.OrderDao")
+        .addEdge("com.a.service.OrderService", "com.a.dao.CustomerDao")
+        .addEdge("com.a.service.CustomerService", "com.a.dao.CustomerDao")
+        .addEdge("com.a.service.CustomerService", "com.a.service.OrderService")
+        .addEdge("com.b.service.OrderService", "java.util.List")
+        .build();
+
+    @Test
+    public void shouldSumEdgesBetweenPackages() {
+        DependencyGraph packages = GraphAggregation.byPackage().aggregate(graph);
+
+        assertThat(packages.nodeNames(), containsInAnyOrder("com.a.service", "com.a.dao", "com.b.service", "java.util"));
+        assertThat(packages.edgeCount(), equalTo(2));
+        assertThat(weight(packages, "com.a.service", "com.a.dao"), equalTo(3));
+        assertThat(weight(packages, "com.b.service", "java.util"), equalTo(1));
+    }
+
+    @Test
+    public void shouldKeepClassesWithTheSameSimpleNameApart() {
+        DependencyGraph packages = GraphAggregation.byPackage().aggregate(graph);
+
+        assertThat(packages.nodeNames(), hasItems("com.a.service", "com.b.service"));
+    }
+
+    @Test
+    public void shouldKeepInternalEdgesOnRequest() {
+        DependencyGraph packages = GraphAggregation.byPackage().keepInternal(true).aggregate(graph);
+
+        assertThat(weight(packages, "com.a.service", "com.a.service"), equalTo(1));
+    }
+
+    @Test
+    public void shouldAggregateByPrefixAndModule() {
+        DependencyGraph prefixes = GraphAggregation.byPrefix(2).aggregate(graph);
+        assertThat(prefixes.nodeNames(), containsInAnyOrder("com.b", "java.util"));
+
+        DependencyGraph modules = GraphAggregation.byModule(
+            Collections.singletonMap("com.b.service.OrderService", "module-b")).aggregate(graph);
+        assertThat(weight(modules, "module-b", "java.util"), equalTo(1));
+    }
+
+    @Test
+    public void shouldWriteWeightsAndFullNames() throws IOException {
+        StringWriter out = new StringWriter();
+        new GraphMLExporter(false).export(GraphAggregation.byPackage().aggregate(graph), out);
+
+        assertThat(out.toString(), containsString(
+            "source=\"com.a.service\" target=\"com.a.dao\">\n            <data key=\"d1\">3.0</data>"));
+    }
+
+    private int weight(DependencyGraph graph, String source, String target) {
+        int node = graph.symbols().id(source);
+        for (int edge = graph.start(node); edge < graph.end(node); edge++) {
+            if (graph.name(graph.target(edge)).equals(target)) {
+                return graph.weight(edge);
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,73 @@
+package com.arneam;
+
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.List;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+public class GraphAnalyticsTest {
+
+    // a -> b -> c -> a is a cycle, d -> a and c -> e hang off it, f depends on itself
+    private DependencyGraph graph = new DependencyGraph.Builder()
+        .addEdge("x.A", "x.B")
+        .addEdge("x.B", "x.C")
+        .addEdge("x.C", "x.A")
+        .addEdge("x.D", "x.A")
+        .addEdge("x.C", "x.E")
+        .addEdge("x.F", "x.F")
+        .build();
+    private GraphAnalytics analytics = new GraphAnalytics(graph);
+
+    @Test
+    public void shouldFindCycles() {
+        List<List<String>> cycles = analytics.cycles();
+
+        assertThat(cycles, hasSize(2));
+        assertThat(cycles.get(0), containsInAnyOrder("x.A", "x.B", "x.C"));
+        assertThat(cycles.get(1), contains("x.F"));
+        assertThat(analytics.componentCount(), equalTo(4));
+    }
+
+    @Test
+    public void shouldRankByFanInAndFanOut() {
+        assertThat(analytics.fanIn(1), contains(new ImmutablePair<>("x.A", 2)));
+        assertThat(analytics.fanOut(1), contains(new ImmutablePair<>("x.C", 2)));
+    }
+
+    @Test
+    public void shouldFollowDependenciesBothWays() {
+        assertThat(analytics.transitiveDependencies("x.D"), containsInAnyOrder("x.A", "x.B", "x.C", "x.E"));
+        assertThat(analytics.transitiveDependents("x.E"), containsInAnyOrder("x.A", "x.B", "x.C", "x.D"));
+        assertThat(analytics.transitiveDependencies("x.Unknown"), empty());
+    }
+
+    @Test
+    public void shouldHandleLongChainsWithoutRecursion() {
+        DependencyGraph.Builder builder = new DependencyGraph.Builder();
+        int length = 200000;
+        for (int i = 0; i < length; i++) {
+            builder.addEdge("n" + i, "n" + ((i + 1) % length));
+        }
+        GraphAnalytics ring = new GraphAnalytics(builder.build());
+
+        assertThat(ring.componentCount(), equalTo(1));
+        assertThat(ring.transitiveDependents("n0").size(), equalTo(length));
+    }
+
+    @Test
+    public void shouldExportMetricsAsNodeAttributes() throws IOException {
+        StringWriter out = new StringWriter();
+        analytics.exporter().export(graph.nodeNames(), graph.edgePairs(), out);
+
+        assertThat(out.toString(), containsString(
+            "<key attr.name=\"inDegree\" attr.type=\"int\" for=\"node\" id=\"n0\"/>"));
+        assertThat(out.toString(), containsString("        <node id=\"x.A\">\n"
+            + "            <data key=\"n0\">2</data>\n"
+            + "            <data key=\"n1\">1</data>\n"));
+    }
+}
@@ -0,0 +1,109 @@
+package com.arneam;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// Everything after the scan: filtering, the compatibility views and the exports.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class GraphBenchmark {
+
+    @Param({"2000"})
+    int fileCount;
+
+    @Param({"20"})
+    int importsPerFile;
+
+    Path projectDir;
+    Path outputDir;
+    ClassDependencies classDependencies;
+    Set<String> nodes;
+    Set<Pair<String, String>> edges;
+    String nodesCSVFile;
+    String edgesCSVFile;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        projectDir = new SyntheticSources(fileCount, importsPerFile, 3)
+            .generate(Files.createTempDirectory("graph-benchmark"));
+        outputDir = Files.createTempDirectory("graph-benchmark-output");
+        classDependencies = new ClassDependencies(projectDir.toFile()).using(new HeaderImportExtractor()).all();
+        nodes = classDependencies.nodes();
+        edges = classDependencies.edges();
+
+        nodesCSVFile = outputDir.resolve("nodes.csv").toString();
+        edgesCSVFile = outputDir.resolve("edges.csv").toString();
+        classDependencies.writeNodesIntoCSVFile(nodes, System.lineSeparator(), nodesCSVFile);
+        classDependencies.writeEdgesIntoCSVFile(edges, ";", System.lineSeparator(), edgesCSVFile);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        SyntheticSources.delete(projectDir);
+        SyntheticSources.delete(outputDir);
+    }
+
+    @Benchmark
+    public DependencyGraph filter() {
+        return classDependencies.allWith(".*\\.p1\\..*").graph();
+    }
+
+    @Benchmark
+    public Set<String> nodes() {
+        return classDependencies.all().nodes();
+    }
+
+    @Benchmark
+    public Set<Pair<String, String>> edges() {
+        return classDependencies.all().edges();
+    }
+
+    @Benchmark
+    public String nodesToCSVFormat() {
+        return classDependencies.toCSVFormat(nodes, System.lineSeparator());
+    }
+
+    @Benchmark
+    public String edgesToCSVFormat() {
+        return classDependencies.toCSVFormat(edges, ";", System.lineSeparator());
+    }
+
+    @Benchmark
+    public void generateGraphMLFromCSVFiles() {
+        classDependencies.generateGraphMLFromCSVFiles(nodesCSVFile, edgesCSVFile,
+            outputDir.resolve("fromCSV.graphml").toString());
+    }
+
+    @Benchmark
+    public void writeGraphMLFile() {
+        classDependencies.writeGraphMLFile(nodes, edges, outputDir.resolve("direct.graphml").toString());
+    }
+
+    @Benchmark
+    public void writeSvgFile() {
+        classDependencies.writeSvgFile(classDependencies.all().graph(), new GraphRenderer(),
+            outputDir.resolve("graph.svg").toString());
+    }
+}
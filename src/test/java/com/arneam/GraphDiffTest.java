@@ -0,0 +1,173 @@
+package com.arneam;
+
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+public class GraphDiffTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void shouldReportAddedAndRemovedNodesEdgesAndNewCycles() throws IOException {
+        GraphSnapshot baseline = snapshot(new DependencyGraph.Builder()
+            .addEdge("a.A", "a.B").addEdge("a.A", "a.C").addEdge("a.B", "a.C").addEdge("e.E", "e.F").build());
+        DependencyGraph current = new DependencyGraph.Builder()
+            .addEdge("a.A", "a.B").addEdge("a.B", "a.C").addEdge("a.C", "a.A").addEdge("a.A", "d.D").build();
+
+        GraphDiff diff = GraphDiff.between(baseline, current);
+
+        assertThat(diff.getAddedNodes(), contains("d.D"));
+        assertThat(diff.getRemovedNodes(), contains("e.E", "e.F"));
+        assertThat(diff.getAddedEdges(), contains(new ImmutablePair<>("a.A", "d.D"), new ImmutablePair<>("a.C", "a.A")));
+        assertThat(diff.getRemovedEdges(), contains(new ImmutablePair<>("a.A", "a.C"), new ImmutablePair<>("e.E", "e.F")));
+        assertThat(diff.getNewCycles(), contains(Arrays.asList("a.A", "a.B", "a.C")));
+        assertThat(diff.hasRegressions(), is(true));
+
+        GraphDiff changedRowsOnly = GraphDiff.between(baseline, current, Arrays.asList("a.A", "a.C", "e.E"));
+        assertThat(changedRowsOnly.getAddedNodes(), equalTo(diff.getAddedNodes()));
+        assertThat(changedRowsOnly.getRemovedNodes(), equalTo(diff.getRemovedNodes()));
+        assertThat(changedRowsOnly.getAddedEdges(), equalTo(diff.getAddedEdges()));
+        assertThat(changedRowsOnly.getRemovedEdges(), equalTo(diff.getRemovedEdges()));
+    }
+
+    @Test
+    public void shouldNotReportCyclesThatAlreadyExisted() throws IOException {
+        GraphSnapshot baseline = snapshot(new DependencyGraph.Builder()
+            .addEdge("a.A", "a.B").addEdge("a.B", "a.C").addEdge("a.C", "a.A").build());
+        DependencyGraph current = new DependencyGraph.Builder()
+            .addEdge("a.A", "a.B").addEdge("a.B", "a.C").addEdge("a.C", "a.A").addEdge("a.A", "a.C")
+            .addEdge("a.C", "a.C").build();
+
+        GraphDiff diff = GraphDiff.between(baseline, current);
+
+        assertThat(diff.getAddedEdges(),
+            contains(new ImmutablePair<>("a.A", "a.C"), new ImmutablePair<>("a.C", "a.C")));
+        assertThat(diff.getNewCycles(), contains(Collections.singletonList("a.C")));
+    }
+
+    @Test
+    public void shouldVisitEachNodeOnceForManyAddedEdgesOnALargeGraph() throws IOException {
+        int ring = 20000;
+        int pairs = 2000;
+        DependencyGraph.Builder before = new DependencyGraph.Builder();
+        DependencyGraph.Builder after = new DependencyGraph.Builder();
+        for (int i = 0; i < ring; i++) {
+            before.addEdge("r.R" + i, "r.R" + (i + 1) % ring);
+            after.addEdge("r.R" + i, "r.R" + (i + 1) % ring);
+            if (i % 10 == 0) {
+                // a cycle already, the ring is one component of the baseline
+                after.addEdge("r.R" + (i + 1), "r.R" + i);
+            }
+        }
+        for (int i = 0; i < pairs; i++) {
+            before.addEdge("p.S" + i, "p.T" + i);
+            after.addEdge("p.S" + i, "p.T" + i).addEdge("p.T" + i, "p.S" + i);
+        }
+
+        GraphDiff diff = GraphDiff.between(snapshot(before.build()), after.build());
+
+        assertThat(diff.getAddedEdges(), hasSize(ring / 10 + pairs));
+        assertThat(diff.getNewCycles(), hasSize(pairs));
+        assertThat(diff.searchedNodes(), lessThanOrEqualTo((long) ring + 2 * pairs + 3 * diff.getAddedEdges().size()));
+    }
+
+    @Test
+    public void shouldFindNoDifferenceWithTheSameGraph() throws IOException {
+        DependencyGraph graph = new DependencyGraph.Builder().addEdge("a.A", "a.B").addEdge("a.B", "a.A").build();
+
+        GraphDiff diff = GraphDiff.between(snapshot(graph), graph);
+
+        assertThat(diff.isEmpty(), is(true));
+        assertThat(diff.getNewCycles(), empty());
+        assertThat(diff.hasRegressions(), is(false));
+    }
+
+    @Test
+    public void shouldWriteMachineReadableJson() throws IOException {
+        GraphSnapshot baseline = snapshot(new DependencyGraph.Builder().addEdge("a.Service", "a.Util").build());
+        DependencyGraph current = new DependencyGraph.Builder()
+            .addEdge("a.Service", "a.Util").addEdge("a.Service", "b.\"Dao\"").build();
+        StringWriter json = new StringWriter();
+
+        GraphDiff.between(baseline, current).writeJson(json);
+
+        assertThat(json.toString(), equalTo("{\n"
+            + "  \"addedNodes\": [\"b.\\\"Dao\\\"\"],\n"
+            + "  \"removedNodes\": [],\n"
+            + "  \"addedEdges\": [\n"
+            + "    {\"source\": \"a.Service\", \"target\": \"b.\\\"Dao\\\"\"}\n"
+            + "  ],\n"
+            + "  \"removedEdges\": [],\n"
+            + "  \"newCycles\": []\n"
+            + "}\n"));
+    }
+
+    @Test
+    public void shouldDiffOnlyTheClassesChangedSinceTheLastScan() throws IOException {
+        File projectDir = folder.newFolder("project");
+        File service = write(projectDir, "a/Service.java", "package a; import a.Util; class Service {}");
+        write(projectDir, "a/Util.java", "package a; import java.util.List; class Util {}");
+        ClassDependencies classDependencies = new ClassDependencies(projectDir).allWith(".*");
+        GraphSnapshot baseline = snapshot(classDependencies.graph());
+
+        write(projectDir, "a/Service.java", "package a; import b.OrderDao; class Service {}");
+        classDependencies.update(Collections.singletonList(service));
+
+        assertThat(classDependencies.changedClasses(), contains("a.Service"));
+        GraphDiff diff = GraphDiff.between(baseline, classDependencies.graph(), classDependencies.changedClasses());
+        assertThat(diff.getAddedEdges(), contains(new ImmutablePair<>("a.Service", "b.OrderDao")));
+        assertThat(diff.getRemovedEdges(), contains(new ImmutablePair<>("a.Service", "a.Util")));
+        assertThat(diff.getAddedNodes(), contains("b.OrderDao"));
+        assertThat(diff.getRemovedNodes(), empty());
+    }
+
+    @Test
+    public void shouldDiffOnlyTheClassesWhoseFilesMissedTheCache() throws IOException {
+        File projectDir = folder.newFolder("project");
+        Path cacheFile = folder.getRoot().toPath().resolve("scan.cache");
+        write(projectDir, "a/Service.java", "package a; import a.Util; class Service {}");
+        write(projectDir, "a/Util.java", "package a; import java.util.List; class Util {}");
+        write(projectDir, "a/Old.java", "package a; import java.io.File; class Old {}");
+        ClassDependencies first = new ClassDependencies(projectDir).cache(new ScanCache(cacheFile)).allWith(".*");
+        GraphSnapshot baseline = snapshot(first.graph());
+        assertThat(first.changedClasses(), containsInAnyOrder("a.Service", "a.Util", "a.Old"));
+
+        write(projectDir, "a/Service.java", "package a; import b.OrderDao; class Service {}");
+        Files.delete(projectDir.toPath().resolve("a/Old.java"));
+        ClassDependencies second = new ClassDependencies(projectDir).cache(new ScanCache(cacheFile)).allWith(".*");
+
+        assertThat(second.changedClasses(), containsInAnyOrder("a.Service", "a.Old"));
+        GraphDiff diff = GraphDiff.between(baseline, second.graph(), second.changedClasses());
+        assertThat(diff.getAddedEdges(), contains(new ImmutablePair<>("a.Service", "b.OrderDao")));
+        assertThat(diff.getRemovedEdges(), contains(
+            new ImmutablePair<>("a.Old", "java.io.File"), new ImmutablePair<>("a.Service", "a.Util")));
+    }
+
+    private GraphSnapshot snapshot(DependencyGraph graph) throws IOException {
+        Path file = folder.newFile().toPath();
+        GraphSnapshot.write(graph, file);
+        return GraphSnapshot.open(file);
+    }
+
+    private File write(File root, String path, String content) throws IOException {
+        Path file = root.toPath().resolve(path);
+        Files.createDirectories(file.getParent());
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        return file.toFile();
+    }
+}
@@ -0,0 +1,54 @@
+package com.arneam;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+public class GraphMLWriterTest {
+
+    @Test
+    public void shouldWriteNodesAndEdges() throws IOException {
+        StringWriter out = new StringWriter();
+        try (GraphMLWriter graphML = new GraphMLWriter(out)) {
+            graphML.node("arneam.DirExplorer");
+            graphML.node("io.File");
+            graphML.edge("arneam.DirExplorer", "io.File", 1.0);
+        }
+
+        assertThat(out.toString(), equalTo(
+            "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"no\"?>\n"
+            + "<graphml xmlns=\"http://graphml.graphdrawing.org/xmlns\""
+            + " xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\""
+            + " xsi:schemaLocation=\"http://graphml.graphdrawing.org/xmlns/1.0/graphml.xsd\">\n"
+            + "    <key attr.name=\"weight\" attr.type=\"double\" for=\"edge\" id=\"d1\"/>\n"
+            + "    <graph edgedefault=\"undirected\" id=\"G\">\n"
+            + "        <node id=\"arneam.DirExplorer\"/>\n"
+            + "        <node id=\"io.File\"/>\n"
+            + "        <edge id=\"e0\" source=\"arneam.DirExplorer\" target=\"io.File\">\n"
+            + "            <data key=\"d1\">1.0</data>\n"
+            + "        </edge>\n"
+            + "    </graph>\n"
+            + "</graphml>\n"));
+    }
+
+    @Test
+    public void shouldEscapeAttributeValues() throws IOException {
+        StringWriter out = new StringWriter();
+        try (GraphMLWriter graphML = new GraphMLWriter(out)) {
+            graphML.node("a<b>&\"c\"");
+        }
+
+        assertThat(out.toString(), containsString("<node id=\"a&lt;b&gt;&amp;&quot;c&quot;\"/>"));
+    }
+
+    @Test
+    public void shouldSimplifyNamesToTheirLastTwoSegments() {
+        assertThat(GraphMLWriter.simplify("com.arneam.ClassDependencies"), equalTo("arneam.ClassDependencies"));
+        assertThat(GraphMLWriter.simplify("arneam.ClassDependencies"), equalTo("arneam.ClassDependencies"));
+        assertThat(GraphMLWriter.simplify("ClassDependencies"), equalTo("ClassDependencies"));
+    }
+}
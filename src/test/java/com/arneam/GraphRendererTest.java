@@ -0,0 +1,87 @@
+package com.arneam;
+
+import org.junit.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+public class GraphRendererTest {
+
+    @Test
+    public void shouldDrawTheMostConnectedNodesWithinTheCaps() throws IOException {
+        DependencyGraph.Builder builder = new DependencyGraph.Builder();
+        for (int i = 0; i < 20; i++) {
+            builder.addEdge("hub.Service", "leaf.Class" + i);
+        }
+        builder.addEdge("leaf.Class0", "leaf.Class1");
+        builder.addEdge("other.A", "other.B");
+
+        StringWriter svg = new StringWriter();
+        new GraphRenderer().maxNodes(3).maxEdges(2).size(400, 300).writeSvg(builder.build(), svg);
+
+        assertThat(count("<circle ", svg.toString()), is(3));
+        assertThat(count("<line ", svg.toString()), is(2));
+        assertThat(svg.toString(), containsString("<title>hub.Service</title>"));
+        assertThat(svg.toString(), not(containsString("other.A")));
+        assertCoordinatesWithin(svg.toString(), 400, 300);
+    }
+
+    @Test
+    public void shouldRenderPng() throws IOException {
+        DependencyGraph graph = new DependencyGraph.Builder()
+            .addEdge("a.A", "b.B").addEdge("b.B", "c.C").addEdge("c.C", "a.A").build();
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+
+        new GraphRenderer().size(320, 200).labelLimit(0).writePng(graph, png);
+
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(png.toByteArray()));
+        assertThat(image.getWidth(), is(320));
+        assertThat(image.getHeight(), is(200));
+    }
+
+    @Test
+    public void shouldLayOutAPreparedDrawingOnlyOnce() throws IOException {
+        AtomicInteger layouts = new AtomicInteger();
+        ForceLayout counting = new ForceLayout() {
+            @Override
+            public double[][] layout(int nodeCount, int[] sources, int[] targets) {
+                layouts.incrementAndGet();
+                return super.layout(nodeCount, sources, targets);
+            }
+        };
+        DependencyGraph graph = new DependencyGraph.Builder().addEdge("a.A", "b.B").addEdge("b.B", "c.C").build();
+        GraphRenderer renderer = new GraphRenderer().layout(counting).size(320, 200);
+
+        GraphRenderer.Drawing drawing = renderer.prepare(graph);
+        StringWriter svg = new StringWriter();
+        renderer.writeSvg(drawing, svg);
+        renderer.writePng(drawing, new ByteArrayOutputStream());
+        StringWriter direct = new StringWriter();
+        renderer.writeSvg(graph, direct);
+
+        assertThat(layouts.get(), is(2));
+        assertThat(svg.toString(), equalTo(direct.toString()));
+    }
+
+    private int count(String element, String svg) {
+        return svg.split(Pattern.quote(element), -1).length - 1;
+    }
+
+    private void assertCoordinatesWithin(String svg, int width, int height) {
+        Matcher matcher = Pattern.compile("c([xy])=\"([0-9.]+)\"").matcher(svg);
+        while (matcher.find()) {
+            double value = Double.parseDouble(matcher.group(2));
+            assertThat(value, lessThanOrEqualTo(matcher.group(1).equals("x") ? (double) width : (double) height));
+        }
+    }
+}
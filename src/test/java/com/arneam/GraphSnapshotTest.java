@@ -0,0 +1,115 @@
+package com.arneam;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+public class GraphSnapshotTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private DependencyGraph graph = new DependencyGraph.Builder()
+        .addEdge("com.arneam.ClassDependencies", "java.util.Map")
+        .addEdge("com.arneam.ClassDependencies", "com.arneam.DirWalker")
+        .addEdge("com.arneam.DirWalker", "java.nio.file.Path")
+        .addEdge("com.arneam.\u00DCnicode", "java.util.Map")
+        .build();
+
+    @Test
+    public void shouldQueryTheMappedSnapshot() throws IOException {
+        Path file = folder.newFile("graph.bin").toPath();
+        GraphSnapshot.write(graph, file);
+
+        GraphSnapshot snapshot = GraphSnapshot.open(file);
+
+        assertThat(snapshot.nodeCount(), equalTo(5));
+        assertThat(snapshot.edgeCount(), equalTo(4));
+        assertThat(snapshot.name(snapshot.id("com.arneam.\u00DCnicode")), equalTo("com.arneam.\u00DCnicode"));
+        assertThat(snapshot.id("java.util.List"), equalTo(-1));
+        assertThat(snapshot.dependenciesOf("com.arneam.ClassDependencies"),
+            containsInAnyOrder("java.util.Map", "com.arneam.DirWalker"));
+        assertThat(snapshot.hasEdge("com.arneam.DirWalker", "java.nio.file.Path"), is(true));
+        assertThat(snapshot.hasEdge("java.nio.file.Path", "com.arneam.DirWalker"), is(false));
+        assertThat(snapshot.toGraph().toMap(), equalTo(graph.toMap()));
+    }
+
+    @Test
+    public void shouldWriteEmptyGraphs() throws IOException {
+        Path file = folder.newFile("empty.bin").toPath();
+        GraphSnapshot.write(DependencyGraph.empty(), file);
+
+        assertThat(GraphSnapshot.open(file).nodeCount(), equalTo(0));
+    }
+
+    @Test
+    public void shouldKeepEdgeWeights() throws IOException {
+        Path file = folder.newFile("weighted.bin").toPath();
+        DependencyGraph packages = GraphAggregation.byPackage().aggregate(graph);
+        GraphSnapshot.write(packages, file);
+
+        GraphSnapshot snapshot = GraphSnapshot.open(file);
+        DependencyGraph restored = snapshot.toGraph();
+
+        assertThat(snapshot.isWeighted(), is(true));
+        assertThat(restored.isWeighted(), is(true));
+        assertThat(weights(packages).values(), hasItem(2));
+        assertThat(weights(restored), equalTo(weights(packages)));
+    }
+
+    @Test
+    public void shouldReplaceSnapshotsWithoutDisturbingOpenReaders() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("graph.bin");
+        GraphSnapshot.write(graph, file);
+        GraphSnapshot before = GraphSnapshot.open(file);
+
+        GraphSnapshot.write(new DependencyGraph.Builder().addEdge("a.A", "a.B").build(), file);
+
+        assertThat(before.toGraph().toMap(), equalTo(graph.toMap()));
+        assertThat(GraphSnapshot.open(file).dependenciesOf("a.A"), contains("a.B"));
+        assertThat(folder.getRoot().list(), arrayContaining("graph.bin"));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldRejectCorruptedHeaderCounts() throws IOException {
+        Path file = folder.newFile("corrupted.bin").toPath();
+        GraphSnapshot.write(graph, file);
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.seek(15);
+            raf.write(3);
+        }
+
+        GraphSnapshot.open(file);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldRejectCorruptedSnapshots() throws IOException {
+        Path file = folder.newFile("corrupted.bin").toPath();
+        GraphSnapshot.write(graph, file);
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.seek(raf.length() - 1);
+            raf.write('X');
+        }
+
+        GraphSnapshot.open(file);
+    }
+
+    private static Map<String, Integer> weights(DependencyGraph graph) {
+        Map<String, Integer> weights = new HashMap<>();
+        for (int node : graph.nodeIds()) {
+            for (int edge = graph.start(node); edge < graph.end(node); edge++) {
+                weights.put(graph.name(node) + "->" + graph.name(graph.target(edge)), graph.weight(edge));
+            }
+        }
+        return weights;
+    }
+}
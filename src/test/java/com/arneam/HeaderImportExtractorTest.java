@@ -0,0 +1,56 @@
+package com.arneam;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+public class HeaderImportExtractorTest {
+
+    private final ImportExtractor headerExtractor = new HeaderImportExtractor();
+    private final ImportExtractor javaParserExtractor = new JavaParserImportExtractor();
+
+    @Test
+    public void shouldExtractPackageAndImportsSkippingCommentsAndAnnotations() throws IOException {
+        SourceImports sourceImports = headerExtractor.extract(new File("src/test/resources/headers/Tricky.java"));
+
+        assertThat(sourceImports.getPackageName(), equalTo("com.arneam.headers"));
+        assertThat(sourceImports.getImports(), contains(
+            "java.util.List",
+            "java.util.Collections.emptyList",
+            "java.util.Collections",
+            "java.util.concurrent",
+            "java.io.File"));
+    }
+
+    @Test
+    public void shouldExtractTheSameImportsAsJavaParser() throws IOException {
+        List<File> sources = Files.walk(Paths.get("src"))
+            .filter(it -> it.toString().endsWith(".java"))
+            .map(it -> it.toFile())
+            .collect(Collectors.toList());
+
+        assertThat(sources, not(empty()));
+        for (File source : sources) {
+            SourceImports header = headerExtractor.extract(source);
+            SourceImports parsed = javaParserExtractor.extract(source);
+            assertThat(source.toString(), header.getPackageName(), equalTo(parsed.getPackageName()));
+            assertThat(source.toString(), header.getImports(), equalTo(parsed.getImports()));
+            assertThat(source.toString(), header.getWildcardImports(), equalTo(parsed.getWildcardImports()));
+        }
+    }
+
+    @Test
+    public void shouldLoadTheSameDependenciesWithBothEngines() {
+        File sources = new File("src");
+        assertThat(new ClassDependencies(sources).using(headerExtractor).all().data(),
+            equalTo(new ClassDependencies(sources).all().data()));
+    }
+}
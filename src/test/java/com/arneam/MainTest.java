@@ -0,0 +1,144 @@
+package com.arneam;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+public class MainTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File app;
+    private File lib;
+    private File out;
+
+    @Before
+    public void setup() throws IOException {
+        app = folder.newFolder("app");
+        lib = folder.newFolder("lib");
+        out = new File(folder.getRoot(), "out");
+        write(app, "com/acme/app/Service.java",
+            "package com.acme.app; import com.acme.lib.UserDao; import java.util.List; class Service {}");
+        write(app, "com/acme/app/generated/Stub.java",
+            "package com.acme.app.generated; import com.acme.lib.UserDao; class Stub {}");
+        write(lib, "com/acme/lib/UserDao.java",
+            "package com.acme.lib; import java.sql.Connection; class UserDao {}");
+    }
+
+    @Test
+    public void shouldWriteEveryFilterInEveryFormatFromOneScan() throws IOException {
+        int status = run(app.getPath(), lib.getPath(), "-o", out.getPath(), "-f", "csv,graphml,dot,bin",
+            "-r", ".*", "-r", "dao=.*Dao", "-x", "**/generated/**", "-p", "2");
+
+        assertThat(status, is(0));
+        assertThat(read("dependencies-1-nodes.csv"), containsString("com.acme.lib.UserDao"));
+        assertThat(read("dependencies-1-edges.csv"), containsString("com.acme.lib.UserDao;java.sql.Connection"));
+        assertThat(read("dao.dot"), containsString("\"com.acme.app.Service\" -> \"com.acme.lib.UserDao\";"));
+        assertThat(read("dao.dot"), not(containsString("java.util.List")));
+        assertThat(read("dao.dot"), not(containsString("Stub")));
+        assertThat(read("dao.graphml"), containsString("<graphml"));
+
+        GraphSnapshot snapshot = GraphSnapshot.open(out.toPath().resolve("dependencies-1.bin"));
+        assertThat(snapshot.dependenciesOf("com.acme.app.Service"),
+            containsInAnyOrder("com.acme.lib.UserDao", "java.util.List"));
+    }
+
+    @Test
+    public void shouldDrawSvgAndPngFromOneLayout() throws IOException {
+        int status = run(app.getPath(), lib.getPath(), "-o", out.getPath(), "-f", "svg,png", "-p", "2");
+
+        assertThat(status, is(0));
+        assertThat(read("dependencies.svg"), containsString("<title>com.acme.lib.UserDao</title>"));
+        assertThat(Files.size(out.toPath().resolve("dependencies.png")), greaterThan(0L));
+    }
+
+    @Test
+    public void shouldOnlyScanIncludedFiles() throws IOException {
+        int status = run(app.getPath(), lib.getPath(), "-o", out.getPath(), "-f", "dot",
+            "--include", "com/acme/lib/**", "--engine", "header");
+
+        assertThat(status, is(0));
+        assertThat(read("dependencies.dot"), containsString("\"com.acme.lib.UserDao\" -> \"java.sql.Connection\";"));
+        assertThat(read("dependencies.dot"), not(containsString("Service")));
+    }
+
+    @Test
+    public void shouldFailWhenADiffAgainstTheBaselineAddsDependencies() throws IOException {
+        File baseline = new File(folder.getRoot(), "baseline");
+        assertThat(run(app.getPath(), lib.getPath(), "-o", baseline.getPath(), "-f", "bin", "-r", "dao=.*Dao"), is(0));
+        assertThat(run(app.getPath(), lib.getPath(), "-o", out.getPath(), "-r", "dao=.*Dao",
+            "--baseline", baseline.getPath(), "--fail-on-diff"), is(0));
+
+        write(app, "com/acme/app/Report.java", "package com.acme.app; import com.acme.lib.UserDao; class Report {}");
+
+        assertThat(run(app.getPath(), lib.getPath(), "-o", out.getPath(), "-r", "dao=.*Dao",
+            "--baseline", baseline.getPath(), "--fail-on-diff"), is(3));
+        assertThat(read("dao-diff.json"), containsString(
+            "{\"source\": \"com.acme.app.Report\", \"target\": \"com.acme.lib.UserDao\"}"));
+    }
+
+    @Test
+    public void shouldDiffTheFilesChangedSinceTheCachedBaseline() throws IOException {
+        File baseline = new File(folder.getRoot(), "baseline");
+        String cache = new File(folder.getRoot(), "scan.cache").getPath();
+        assertThat(run(app.getPath(), lib.getPath(), "-o", baseline.getPath(), "-f", "bin", "--cache", cache), is(0));
+
+        write(app, "com/acme/app/Report.java", "package com.acme.app; import com.acme.lib.UserDao; class Report {}");
+
+        assertThat(run(app.getPath(), lib.getPath(), "-o", out.getPath(), "--cache", cache,
+            "--baseline", baseline.getPath(), "--fail-on-diff"), is(3));
+        assertThat(read("dependencies-diff.json"), containsString(
+            "{\"source\": \"com.acme.app.Report\", \"target\": \"com.acme.lib.UserDao\"}"));
+        assertThat(read("dependencies-diff.json"), containsString("\"removedEdges\": [],"));
+    }
+
+    @Test
+    public void shouldRejectUnknownOptions() {
+        assertThat(run("--colour", app.getPath()), is(2));
+        assertThat(run("-f", "pdf", app.getPath()), is(2));
+        assertThat(run("-o", out.getPath()), is(2));
+    }
+
+    @Test
+    public void shouldRejectOutOfRangeNumbers() {
+        assertThat(run("-o", out.getPath(), "-p", "0", app.getPath()), is(2));
+        assertThat(run("-o", out.getPath(), "--max-nodes", "-1", "-f", "svg", app.getPath()), is(2));
+        assertThat(run("-o", out.getPath(), "--max-edges", "-1", "-f", "svg", app.getPath()), is(2));
+        assertThat(out.exists(), is(false));
+    }
+
+    @Test
+    public void shouldRejectInvalidOrDuplicateFiltersBeforeScanning() {
+        assertThat(run("-o", out.getPath(), "-r", "dao=(.*Dao", app.getPath()), is(2));
+        assertThat(run("-o", out.getPath(), "-r", "dao=.*Dao", "-r", "dao=.*Repository", app.getPath()), is(2));
+        assertThat(out.exists(), is(false));
+    }
+
+    private int run(String... args) {
+        PrintStream discard = new PrintStream(new ByteArrayOutputStream());
+        return Main.run(args, discard, discard);
+    }
+
+    private String read(String name) throws IOException {
+        return new String(Files.readAllBytes(out.toPath().resolve(name)), StandardCharsets.UTF_8);
+    }
+
+    private void write(File root, String path, String content) throws IOException {
+        Path file = root.toPath().resolve(path);
+        Files.createDirectories(file.getParent());
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+}
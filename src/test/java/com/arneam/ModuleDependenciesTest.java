@@ -0,0 +1,90 @@
+package com.arneam;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+public class ModuleDependenciesTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File project;
+
+    @Before
+    public void setup() throws IOException {
+        project = folder.newFolder("shop");
+        write("pom.xml", "<project/>");
+        write("core/pom.xml", "<project/>");
+        write("core/src/main/java/shop/core/Order.java", "package shop.core; import java.util.List; class Order {}");
+        write("core/src/main/java/shop/core/Money.java", "package shop.core; class Money {}");
+        write("core/src/test/java/shop/core/OrderTest.java", "package shop.core; import org.junit.Test; class OrderTest {}");
+        write("core/target/generated-sources/shop/core/Order.java", "package shop.core; import java.io.File; class Order {}");
+        write("web/build.gradle", "");
+        write("web/src/main/java/shop/web/Checkout.java",
+            "package shop.web; import shop.core.Order; import shop.core.Money; class Checkout {}");
+    }
+
+    @Test
+    public void shouldDiscoverModulesAndTheirSourceRoots() {
+        ModuleDependencies moduleDependencies = new ModuleDependencies(project);
+
+        assertThat(moduleDependencies.modules().stream().map(ModuleDependencies.Module::getName)
+            .collect(Collectors.toList()), containsInAnyOrder("shop", "core", "web"));
+    }
+
+    @Test
+    public void shouldTagClassesWithTheirModuleAndLeaveOutTestsAndBuildOutput() {
+        ModuleDependencies moduleDependencies = new ModuleDependencies(project).parallelism(2).all();
+
+        assertThat(moduleDependencies.data().get("shop.core.Order"), contains("java.util.List"));
+        assertThat(moduleDependencies.data(), not(hasKey("shop.core.OrderTest")));
+        assertThat(moduleDependencies.moduleOf(), hasEntry("shop.core.Money", "core"));
+        assertThat(moduleDependencies.moduleOf(), hasEntry("shop.web.Checkout", "web"));
+
+        DependencyGraph modules = moduleDependencies.moduleGraph();
+        assertThat(modules.edgePairs().stream().map(it -> it.getKey() + "->" + it.getValue())
+            .collect(Collectors.toList()), contains("web->core"));
+        assertThat(modules.weight(modules.start(modules.symbols().id("web"))), is(2));
+    }
+
+    @Test
+    public void shouldIncludeTestSourcesOnRequest() {
+        ModuleDependencies moduleDependencies = new ModuleDependencies(project).includeTests(true).all();
+
+        assertThat(moduleDependencies.data().get("shop.core.OrderTest"), contains("org.junit.Test"));
+    }
+
+    @Test
+    public void shouldSkipModulesThatDidNotChangeSinceTheLastRun() throws IOException {
+        Path cacheDir = folder.getRoot().toPath().resolve("cache");
+        new ModuleDependencies(project).cacheDir(cacheDir).all();
+
+        write("web/src/main/java/shop/web/Cart.java", "package shop.web; import shop.core.Money; class Cart {}");
+        ModuleDependencies moduleDependencies = new ModuleDependencies(project).cacheDir(cacheDir).all();
+
+        assertThat(moduleDependencies.skippedModules(), containsInAnyOrder("shop", "core"));
+        assertThat(moduleDependencies.data().get("shop.core.Order"), contains("java.util.List"));
+        assertThat(moduleDependencies.data().get("shop.web.Cart"), contains("shop.core.Money"));
+        assertThat(moduleDependencies.moduleOf(), hasEntry("shop.core.Money", "core"));
+
+        assertThat(moduleDependencies.all().skippedModules(), containsInAnyOrder("shop", "core", "web"));
+    }
+
+    private void write(String path, String content) throws IOException {
+        Path file = project.toPath().resolve(path);
+        Files.createDirectories(file.getParent());
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+}
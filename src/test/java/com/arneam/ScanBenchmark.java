@@ -0,0 +1,67 @@
+package com.arneam;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+// Full scans of a generated tree, comparing engines and parallelism.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ScanBenchmark {
+
+    @Param({"1000"})
+    int fileCount;
+
+    @Param({"20"})
+    int importsPerFile;
+
+    @Param({"4"})
+    int packageDepth;
+
+    @Param({"javaparser", "header"})
+    String engine;
+
+    @Param({"1", "4"})
+    int parallelism;
+
+    Path projectDir;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        projectDir = new SyntheticSources(fileCount, importsPerFile, packageDepth)
+            .generate(Files.createTempDirectory("scan-benchmark"));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        SyntheticSources.delete(projectDir);
+    }
+
+    @Benchmark
+    public DependencyGraph loadData() {
+        return new ClassDependencies(projectDir.toFile())
+            .using(engine.equals("header") ? new HeaderImportExtractor() : new JavaParserImportExtractor())
+            .parallelism(parallelism)
+            .all()
+            .graph();
+    }
+}
@@ -0,0 +1,99 @@
+package com.arneam;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+public class ScanCacheTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File projectDir;
+    private Path cacheFile;
+    private AtomicInteger parsed = new AtomicInteger();
+    private ImportExtractor countingExtractor = file -> {
+        parsed.incrementAndGet();
+        return new JavaParserImportExtractor().extract(file);
+    };
+
+    @Before
+    public void setup() throws IOException {
+        projectDir = folder.newFolder("project");
+        cacheFile = folder.getRoot().toPath().resolve("scan.cache");
+        write("A.java", "package a; import java.util.List; class A {}");
+        write("B.java", "package a; import java.io.File; class B {}");
+    }
+
+    @Test
+    public void shouldReuseResultsOfUnchangedFiles() {
+        scan(false);
+        assertThat(parsed.get(), equalTo(2));
+
+        parsed.set(0);
+        ClassDependencies classDependencies = scan(false);
+
+        assertThat(parsed.get(), equalTo(0));
+        assertThat(classDependencies.data(), hasEntry(is("a.A"), contains("java.util.List")));
+        assertThat(classDependencies.data(), hasEntry(is("a.B"), contains("java.io.File")));
+    }
+
+    @Test
+    public void shouldParseChangedFilesAgain() throws IOException {
+        scan(true);
+
+        parsed.set(0);
+        write("B.java", "package a; import java.io.FileReader; class B {}");
+        ClassDependencies classDependencies = scan(true);
+
+        assertThat(parsed.get(), equalTo(1));
+        assertThat(classDependencies.data(), hasEntry(is("a.B"), contains("java.io.FileReader")));
+    }
+
+    @Test
+    public void shouldEvictDeletedFiles() throws IOException {
+        scan(false);
+        Files.delete(projectDir.toPath().resolve("B.java"));
+        scan(false);
+
+        assertThat(new ScanCache(cacheFile).load().size(), equalTo(1));
+    }
+
+    @Test
+    public void shouldNotReuseResultsOfAnotherEngine() throws IOException {
+        write("A.java", "package a; class A { B b; }");
+        new ClassDependencies(projectDir)
+            .using(new HeaderImportExtractor())
+            .cache(new ScanCache(cacheFile))
+            .all();
+
+        ClassDependencies classDependencies = new ClassDependencies(projectDir)
+            .cache(new ScanCache(cacheFile))
+            .resolveTypes()
+            .all();
+
+        assertThat(classDependencies.data(), hasEntry(is("a.A"), contains("a.B")));
+    }
+
+    private ClassDependencies scan(boolean hashContents) {
+        return new ClassDependencies(projectDir)
+            .using(countingExtractor)
+            .cache(new ScanCache(cacheFile, hashContents))
+            .all();
+    }
+
+    private void write(String name, String content) throws IOException {
+        Files.write(projectDir.toPath().resolve(name), content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,116 @@
+package com.arneam;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+public class ScanFailureTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File projectDir;
+
+    @Before
+    public void setup() throws IOException {
+        projectDir = folder.getRoot();
+        write("Good.java", "package a; import java.util.List; class Good {}");
+        write("Broken.java", "package a; import java.util.Map; class Broken { void m( }");
+        write("Slow.java", "package a; import java.util.Set; class Slow {}");
+        StringBuilder large = new StringBuilder("package a; import java.io.File; class Large {\n");
+        for (int i = 0; i < 2000; i++) {
+            large.append("    int field").append(i).append(";\n");
+        }
+        write("Large.java", large.append("}\n").toString());
+    }
+
+    @Test
+    public void shouldSkipAndRecordBrokenSlowAndLargeFiles() {
+        ClassDependencies classDependencies = new ClassDependencies(projectDir)
+            .using(hangingOn("Slow.java"))
+            .timeout(200, TimeUnit.MILLISECONDS)
+            .maxFileSize(10000)
+            .parallelism(4)
+            .all();
+
+        assertThat(classDependencies.data().keySet(), contains("a.Good"));
+        assertThat(classDependencies.failures(), containsInAnyOrder(
+            failure("Broken.java", ScanFailure.Reason.PARSE_ERROR),
+            failure("Slow.java", ScanFailure.Reason.TIMEOUT),
+            failure("Large.java", ScanFailure.Reason.TOO_LARGE)));
+        assertThat(classDependencies.metrics().getParseFailures(), equalTo(3L));
+    }
+
+    @Test
+    public void shouldKeepScanningPastParsesThatIgnoreInterruption() throws Exception {
+        File hungDir = folder.newFolder("hung");
+        for (int i = 1; i <= 3; i++) {
+            Files.write(hungDir.toPath().resolve("Hung" + i + ".java"),
+                ("package b; class Hung" + i + " {}").getBytes(StandardCharsets.UTF_8));
+        }
+        Files.write(hungDir.toPath().resolve("Ok.java"),
+            "package b; import java.util.List; class Ok {}".getBytes(StandardCharsets.UTF_8));
+        AtomicBoolean hang = new AtomicBoolean(true);
+        ImportExtractor spinning = file -> {
+            while (file.getName().startsWith("Hung") && hang.get()) {
+                Thread.yield();
+            }
+            return new SourceImports("b", Collections.singletonList("java.util.List"));
+        };
+
+        ClassDependencies classDependencies = new ClassDependencies(hungDir)
+            .using(spinning)
+            .timeout(500, TimeUnit.MILLISECONDS)
+            .all();
+
+        assertThat(classDependencies.data().keySet(), contains("b.Ok"));
+        assertThat(classDependencies.failures(), everyItem(hasProperty("reason", is(ScanFailure.Reason.TIMEOUT))));
+        assertThat(classDependencies.failures(), hasSize(3));
+        assertThat(classDependencies.abandonedParsers(), equalTo(3));
+
+        hang.set(false);
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+        while (classDependencies.abandonedParsers() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(classDependencies.abandonedParsers(), equalTo(0));
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void shouldStopAtTheFirstFailureOnRequest() {
+        new ClassDependencies(projectDir).onFailure(ScanFailure.Policy.FAIL).all();
+    }
+
+    private ImportExtractor hangingOn(String name) {
+        return file -> {
+            if (file.getName().equals(name)) {
+                try {
+                    Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return new JavaParserImportExtractor().extract(file);
+        };
+    }
+
+    private org.hamcrest.Matcher<Object> failure(String name, ScanFailure.Reason reason) {
+        return allOf(hasProperty("file", hasProperty("name", is(name))), hasProperty("reason", is(reason)));
+    }
+
+    private void write(String name, String content) throws IOException {
+        Files.write(projectDir.toPath().resolve(name), content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,126 @@
+package com.arneam;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+public class ScanMetricsTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private ClassDependencies classDependencies = new ClassDependencies(new File(ClassDependenciesTest.FILE_PATH));
+
+    @Test
+    public void shouldRecordFilesBytesAndSlowestFiles() {
+        ScanMetrics metrics = classDependencies.all().metrics();
+
+        assertThat(metrics.getFiles(), equalTo(2L));
+        assertThat(metrics.getBytes(), greaterThan(1000L));
+        assertThat(metrics.getParseFailures(), equalTo(0L));
+        assertThat(metrics.getSlowestFiles().length, equalTo(2));
+        assertThat(metrics.getSlowestFiles()[0], containsString(".java ("));
+    }
+
+    @Test
+    public void shouldKeepOnlyTheSlowestFiles() {
+        ScanMetrics metrics = new ScanMetrics(2);
+        metrics.recordFile(new File("a"), 1, 30);
+        metrics.recordFile(new File("b"), 1, 10);
+        metrics.recordFile(new File("c"), 1, 20);
+
+        assertThat(metrics.getSlowestFiles(), arrayContaining("a (0 ms)", "c (0 ms)"));
+        assertThat(metrics.getFiles(), equalTo(3L));
+    }
+
+    @Test
+    public void shouldRecordTheFailedFiles() throws IOException {
+        Path report = folder.getRoot().toPath().resolve("metrics.json");
+        ScanMetrics metrics = new ScanMetrics();
+        metrics.recordFailure(new File("src/Broken.java"));
+        metrics.writeJson(report);
+
+        assertThat(metrics.getParseFailures(), equalTo(1L));
+        assertThat(metrics.getFailedFiles(), arrayContaining(new File("src/Broken.java").getPath()));
+        assertThat(new String(Files.readAllBytes(report), StandardCharsets.UTF_8),
+            containsString("\"failedFiles\": [\n    " + Json.quote(new File("src/Broken.java").getPath()) + "\n  ],"));
+
+        metrics.reset();
+        assertThat(metrics.getFailedFiles(), emptyArray());
+    }
+
+    @Test
+    public void shouldExposeMetricsThroughJmx() throws JMException {
+        ScanMetrics metrics = classDependencies.all().metrics().register("test");
+        try {
+            Object files = ManagementFactory.getPlatformMBeanServer().getAttribute(
+                new ObjectName("com.arneam:type=ScanMetrics,name=\"test\""), "Files");
+            assertThat(files, equalTo((Object) 2L));
+        } finally {
+            metrics.unregister();
+        }
+    }
+
+    @Test
+    public void shouldWriteAJsonReport() throws IOException {
+        Path report = folder.getRoot().toPath().resolve("metrics.json");
+        classDependencies.all();
+        classDependencies.writeGraphMLFile(classDependencies.nodes(), classDependencies.edges(),
+            folder.getRoot().toPath().resolve("graph.graphml").toString());
+        classDependencies.metrics().writeJson(report);
+
+        String json = new String(Files.readAllBytes(report), StandardCharsets.UTF_8);
+        assertThat(json, containsString("\"files\": 2,"));
+        assertThat(json, containsString("\"exportMillis\": "));
+        assertThat(json, containsString("\"slowestFiles\": [\n    {\"path\": "));
+    }
+
+    @Test
+    public void shouldNotCountCacheHitsAsParseTime() {
+        Path cacheFile = folder.getRoot().toPath().resolve("scan.cache");
+        new ClassDependencies(new File(ClassDependenciesTest.FILE_PATH)).cache(new ScanCache(cacheFile)).all();
+
+        ScanMetrics metrics = new ClassDependencies(new File(ClassDependenciesTest.FILE_PATH))
+            .cache(new ScanCache(cacheFile)).all().metrics();
+
+        assertThat(metrics.getFiles(), equalTo(2L));
+        assertThat(metrics.getCacheHits(), equalTo(2L));
+        assertThat(metrics.getSlowestFiles(), emptyArray());
+        assertThat(metrics.getParsedFilesPerSecond(), equalTo(0.0));
+        assertThat(metrics.getScannedFilesPerSecond(), greaterThan(0.0));
+    }
+
+    @Test
+    public void shouldDeriveThroughputFromParseAndScanTime() throws IOException {
+        Path report = folder.getRoot().toPath().resolve("metrics.json");
+        ScanMetrics metrics = new ScanMetrics();
+        metrics.recordFile(new File("a"), 3000, TimeUnit.MILLISECONDS.toNanos(500));
+        metrics.recordFile(new File("b"), 1000, TimeUnit.MILLISECONDS.toNanos(500));
+        metrics.recordCacheHit(new File("c"), 4000);
+        metrics.recordScan(TimeUnit.SECONDS.toNanos(4));
+        metrics.writeJson(report);
+
+        assertThat(metrics.getParsedFilesPerSecond(), closeTo(2.0, 1e-9));
+        assertThat(metrics.getParsedBytesPerSecond(), closeTo(4000.0, 1e-9));
+        assertThat(metrics.getScannedFilesPerSecond(), closeTo(0.75, 1e-9));
+        assertThat(metrics.getScannedBytesPerSecond(), closeTo(2000.0, 1e-9));
+        assertThat(new String(Files.readAllBytes(report), StandardCharsets.UTF_8), allOf(
+            containsString("\"cacheHits\": 1,"),
+            containsString("\"scanMillis\": 4000,"),
+            containsString("\"parsedFilesPerSecond\": 2.0,"),
+            containsString("\"scannedBytesPerSecond\": 2000.0\n")));
+    }
+}
@@ -0,0 +1,82 @@
+package com.arneam;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+// Writes a reproducible tree of Java sources for benchmarks: fileCount classes spread over
+// packages packageDepth segments deep, each importing importsPerFile other generated classes
+// or JDK types, with a small body so parsing costs something.
+public class SyntheticSources {
+
+    private static final String[] JDK_TYPES = {
+        "java.util.List", "java.util.Map", "java.util.Set", "java.io.File", "java.io.IOException",
+        "java.nio.file.Path", "java.util.concurrent.ConcurrentHashMap", "java.util.function.Function"
+    };
+    private static final int CLASSES_PER_PACKAGE = 20;
+
+    private final int fileCount;
+    private final int importsPerFile;
+    private final int packageDepth;
+
+    public SyntheticSources(int fileCount, int importsPerFile, int packageDepth) {
+        this.fileCount = fileCount;
+        this.importsPerFile = importsPerFile;
+        this.packageDepth = packageDepth;
+    }
+
+    public Path generate(Path root) throws IOException {
+        Random random = new Random(fileCount * 31L + importsPerFile);
+        for (int i = 0; i < fileCount; i++) {
+            Path file = root.resolve(packageName(i).replace('.', '/')).resolve(className(i) + ".java");
+            Files.createDirectories(file.getParent());
+            try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                writer.write("/*\n * Generated source " + i + "\n */\n");
+                writer.write("package " + packageName(i) + ";\n\n");
+                for (int j = 0; j < importsPerFile; j++) {
+                    if (j % 4 == 3) {
+                        writer.write("import " + JDK_TYPES[random.nextInt(JDK_TYPES.length)] + ";\n");
+                    } else {
+                        int other = random.nextInt(fileCount);
+                        writer.write("import " + packageName(other) + "." + className(other) + ";\n");
+                    }
+                }
+                writer.write("\npublic class " + className(i) + " {\n");
+                for (int j = 0; j < 5; j++) {
+                    writer.write("    private int field" + j + " = " + j + ";\n\n");
+                    writer.write("    public int method" + j + "(int value) {\n");
+                    writer.write("        if (value > field" + j + ") {\n");
+                    writer.write("            return value * " + (j + 1) + " + field" + j + ";\n");
+                    writer.write("        }\n");
+                    writer.write("        return method" + j + "(value + 1);\n");
+                    writer.write("    }\n\n");
+                }
+                writer.write("}\n");
+            }
+        }
+        return root;
+    }
+
+    public static void delete(Path root) throws IOException {
+        if (Files.exists(root)) {
+            Files.walk(root).sorted((a, b) -> b.compareTo(a)).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    private String packageName(int i) {
+        int pkg = i / CLASSES_PER_PACKAGE;
+        StringBuilder name = new StringBuilder("com.example");
+        for (int level = 0; level < packageDepth; level++) {
+            name.append(".p").append(pkg % 10);
+            pkg /= 10;
+        }
+        return name.append(".m").append(i / CLASSES_PER_PACKAGE).toString();
+    }
+
+    private String className(int i) {
+        return "Generated" + i;
+    }
+}
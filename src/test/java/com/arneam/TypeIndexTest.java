@@ -0,0 +1,110 @@
+package com.arneam;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+public class TypeIndexTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File app;
+
+    @Before
+    public void setup() throws IOException {
+        app = folder.newFolder("app");
+        write(app, "a/A.java", String.join("\n",
+            "package a;",
+            "import b.*;",
+            "import java.util.*;",
+            "@Audited",
+            "class A extends Base {",
+            "    C c;",
+            "    List<Outer.Inner> items;",
+            "    c.D d = new c.D();",
+            "    void run() { Helper.run(); }",
+            "}"));
+        write(app, "a/Base.java", "package a; class Base {}");
+        write(app, "a/Audited.java", "package a; @interface Audited {}");
+        write(app, "a/Helper.java", "package a; class Helper { static void run() {} }");
+        write(app, "a/Outer.java", "package a; class Outer { static class Inner {} }");
+        write(app, "b/C.java", "package b; class C {}");
+        write(app, "c/D.java", "package c; class D {}");
+    }
+
+    @Test
+    public void shouldKeepTheImportsAsWrittenWithoutResolution() {
+        assertThat(new ClassDependencies(app).all().data().get("a.A"), containsInAnyOrder("b", "java.util"));
+    }
+
+    @Test
+    public void shouldResolveSamePackageWildcardAndQualifiedReferences() {
+        ClassDependencies classDependencies = new ClassDependencies(app).resolveTypes().parallelism(2).all();
+
+        assertThat(classDependencies.data().get("a.A"), containsInAnyOrder(
+            "a.Base", "a.Audited", "a.Helper", "a.Outer", "b.C", "c.D", "java.util"));
+        assertThat(classDependencies.typeIndex().size(), is(7));
+        assertThat(classDependencies.metrics().getResolveMillis(), greaterThanOrEqualTo(0L));
+    }
+
+    @Test
+    public void shouldResolveAgainstAnIndexSavedByAnotherScan() throws IOException {
+        File lib = folder.newFolder("lib");
+        write(lib, "lib/Tool.java", "package lib; class Tool {}");
+        Path indexFile = folder.getRoot().toPath().resolve("types.idx");
+        new ClassDependencies(lib).resolveTypes().all().typeIndex().save(indexFile);
+
+        File client = folder.newFolder("client");
+        write(client, "client/Main.java", "package client; import lib.*; class Main { Tool tool; }");
+        TypeIndex index = TypeIndex.load(indexFile);
+
+        assertThat(index.fileOf("lib.Tool"), equalTo(lib.toPath().resolve("lib/Tool.java").toAbsolutePath()));
+        assertThat(new ClassDependencies(client).resolveTypes(index).all().data().get("client.Main"),
+            contains("lib.Tool"));
+    }
+
+    @Test
+    public void shouldReplaceASavedIndexWithoutLeavingTemporaryFiles() throws IOException {
+        Path dir = folder.newFolder("index").toPath();
+        Path indexFile = dir.resolve("types.idx");
+        TypeIndex index = new TypeIndex();
+        index.put("a.A", app.toPath().resolve("a/A.java"));
+        index.save(indexFile);
+        index.put("b.C", app.toPath().resolve("b/C.java"));
+        index.save(indexFile);
+
+        assertThat(TypeIndex.load(indexFile).size(), is(2));
+        assertThat(dir.toFile().list(), arrayContaining("types.idx"));
+    }
+
+    @Test
+    public void shouldResolveNestedTypesToTheirTopLevelType() {
+        TypeIndex index = new TypeIndex();
+        index.put("a.Outer", app.toPath().resolve("a/Outer.java"));
+        SourceImports source = new SourceImports("x", Arrays.asList("a.Outer"), Collections.emptyList(),
+            Collections.emptyList());
+
+        assertThat(index.resolve("Outer.Inner", source), equalTo("a.Outer"));
+        assertThat(index.resolve("a.Outer.Inner", source), equalTo("a.Outer"));
+        assertThat(index.resolve("Missing", source), nullValue());
+    }
+
+    private void write(File root, String path, String content) throws IOException {
+        Path file = root.toPath().resolve(path);
+        Files.createDirectories(file.getParent());
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+}
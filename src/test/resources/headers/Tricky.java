@@ -0,0 +1,20 @@
+/*
+ * Header comment mentioning import fake.InHeader;
+ */
+// package fake.pkg;
+@Deprecated
+@SuppressWarnings(value = {"unused", "import fake.InString;"})
+package com.arneam.headers;
+
+import java.util.List; // trailing comment
+import static java.util.Collections.emptyList;
+import static java.util.Collections.*;
+import java.util.concurrent.*;
+import java . io /* inline */ . File;
+
+/** javadoc mentioning import fake.InJavadoc; */
+@SuppressWarnings("import fake.InAnnotation;")
+public class Tricky {
+    // import fake.InBody;
+    String s = "import fake.InBody;";
+}